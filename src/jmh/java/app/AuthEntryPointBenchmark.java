@@ -0,0 +1,37 @@
+package app;
+
+import app.security.jwt.AuthEntryPointJwt;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.InsufficientAuthenticationException;
+import org.springframework.security.core.AuthenticationException;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The 401 response written for every unauthenticated request. The mock request and response
+ * are part of each operation and of its allocation.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Dlogback.configurationFile=logback-jmh.xml")
+@State(Scope.Benchmark)
+public class AuthEntryPointBenchmark {
+
+    private final AuthEntryPointJwt authEntryPoint = new AuthEntryPointJwt();
+
+    private final AuthenticationException exception =
+            new InsufficientAuthenticationException("Full authentication is required to access this resource");
+
+    @Benchmark
+    public MockHttpServletResponse commence() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/server/cakes/all");
+        request.setServletPath("/server/cakes/all");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        authEntryPoint.commence(request, response, exception);
+        return response;
+    }
+}
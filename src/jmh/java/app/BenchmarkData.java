@@ -0,0 +1,34 @@
+package app;
+
+import app.enums.OrderStatus;
+import app.model.Cake;
+import app.model.Customer;
+import app.model.CustomerOrder;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Entity graphs shaped like the ones the API maps and serializes.
+ */
+final class BenchmarkData {
+
+    static final int CAKES_PER_ORDER = 5;
+
+    private BenchmarkData() {
+    }
+
+    static Customer customer(int orders) {
+        List<Cake> cakes = new ArrayList<>();
+        for (long i = 1; i <= CAKES_PER_ORDER; i++) {
+            cakes.add(new Cake(i, "Cake " + i, "Sponge, cream and fruit number " + i, null, 0L));
+        }
+        Customer customer = new Customer(1L, "Ann", "Baker", "ann.baker@store.com", "Main Street 1, Springfield",
+                new ArrayList<>(), 0L, null);
+        for (long i = 1; i <= orders; i++) {
+            customer.getOrdersList().add(new CustomerOrder(i, "Order " + i, new Date(), OrderStatus.NEW, customer, cakes, 0L, null));
+        }
+        return customer;
+    }
+}
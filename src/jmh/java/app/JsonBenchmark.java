@@ -0,0 +1,45 @@
+package app;
+
+import app.dto.CustomerDTO;
+import app.mapper.CustomerMapperImpl;
+import app.mapper.CustomerOrderMapperImpl;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization of a customer with nested orders, configured like the application's
+ * ObjectMapper.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Dlogback.configurationFile=logback-jmh.xml")
+@State(Scope.Benchmark)
+public class JsonBenchmark {
+
+    @Param({"1", "10", "100"})
+    private int orders;
+
+    private ObjectMapper objectMapper;
+
+    private CustomerDTO customerDTO;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        CustomerMapperImpl customerMapper = new CustomerMapperImpl();
+        ReflectionTestUtils.setField(customerMapper, "customerOrderMapper", new CustomerOrderMapperImpl());
+        customerDTO = customerMapper.toDTO(BenchmarkData.customer(orders));
+    }
+
+    @Benchmark
+    public byte[] serializeCustomer() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(customerDTO);
+    }
+}
@@ -0,0 +1,97 @@
+package app;
+
+import app.dto.CakeDTO;
+import app.dto.CustomerDTO;
+import app.dto.CustomerOrderDTO;
+import app.mapper.CakeMapper;
+import app.mapper.CakeMapperImpl;
+import app.mapper.CustomerMapper;
+import app.mapper.CustomerMapperImpl;
+import app.mapper.CustomerOrderMapper;
+import app.mapper.CustomerOrderMapperImpl;
+import app.model.Cake;
+import app.model.Customer;
+import app.model.CustomerOrder;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The generated MapStruct mappers on a customer with the given number of orders, each listing
+ * BenchmarkData.CAKES_PER_ORDER cakes.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Dlogback.configurationFile=logback-jmh.xml")
+@State(Scope.Benchmark)
+public class MapperBenchmark {
+
+    @Param({"1", "10", "100"})
+    private int orders;
+
+    private CakeMapper cakeMapper;
+
+    private CustomerOrderMapper customerOrderMapper;
+
+    private CustomerMapper customerMapper;
+
+    private Cake cake;
+
+    private CakeDTO cakeDTO;
+
+    private CustomerOrder customerOrder;
+
+    private CustomerOrderDTO customerOrderDTO;
+
+    private Customer customer;
+
+    private CustomerDTO customerDTO;
+
+    @Setup
+    public void setUp() {
+        cakeMapper = new CakeMapperImpl();
+        customerOrderMapper = new CustomerOrderMapperImpl();
+        customerMapper = new CustomerMapperImpl();
+        ReflectionTestUtils.setField(customerMapper, "customerOrderMapper", customerOrderMapper);
+
+        customer = BenchmarkData.customer(orders);
+        customerOrder = customer.getOrdersList().get(0);
+        cake = customerOrder.getCakesOrdered().get(0);
+        customerDTO = customerMapper.toDTO(customer);
+        customerOrderDTO = customerOrderMapper.toDTO(customerOrder);
+        cakeDTO = cakeMapper.toDTO(cake);
+    }
+
+    @Benchmark
+    public CakeDTO cakeToDTO() {
+        return cakeMapper.toDTO(cake);
+    }
+
+    @Benchmark
+    public Cake cakeToEntity() {
+        return cakeMapper.toEntity(cakeDTO);
+    }
+
+    @Benchmark
+    public CustomerOrderDTO customerOrderToDTO() {
+        return customerOrderMapper.toDTO(customerOrder);
+    }
+
+    @Benchmark
+    public CustomerOrder customerOrderToEntity() {
+        return customerOrderMapper.toEntity(customerOrderDTO);
+    }
+
+    @Benchmark
+    public CustomerDTO customerToDTO() {
+        return customerMapper.toDTO(customer);
+    }
+
+    @Benchmark
+    public Customer customerToEntity() {
+        return customerMapper.toEntity(customerDTO);
+    }
+}
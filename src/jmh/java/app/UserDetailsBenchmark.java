@@ -0,0 +1,33 @@
+package app;
+
+import app.enums.RoleType;
+import app.model.Role;
+import app.model.User;
+import app.service.userService.UserDetailsImpl;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Dlogback.configurationFile=logback-jmh.xml")
+@State(Scope.Benchmark)
+public class UserDetailsBenchmark {
+
+    private User user;
+
+    @Setup
+    public void setUp() {
+        user = new User("baker", "baker@store.com", "$2a$10$abcdefghijklmnopqrstuv");
+        user.setId(1L);
+        user.setRoles(Set.of(new Role(1, RoleType.ROLE_EMPLOYEE), new Role(2, RoleType.ROLE_MANAGER)));
+    }
+
+    @Benchmark
+    public UserDetailsImpl build() {
+        return UserDetailsImpl.build(user);
+    }
+}
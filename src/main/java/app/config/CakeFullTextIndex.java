@@ -0,0 +1,38 @@
+package app.config;
+
+import app.repository.CakeRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * GIN index over CakeRepository.SEARCH_DOCUMENT, the weighted words of the name and description
+ * of each cake. Whether it could be built decides where cakes are searched: in PostgreSQL when
+ * it exists, in the in-memory app.service.CakeTextIndex until then and on other databases.
+ */
+@Component
+public class CakeFullTextIndex {
+
+    private static final String NAME = "cake_search_idx";
+
+    private final PostgresIndexInitializer indexInitializer;
+
+    private volatile boolean available;
+
+    public CakeFullTextIndex(PostgresIndexInitializer indexInitializer) {
+        this.indexInitializer = indexInitializer;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void create() {
+        available = indexInitializer.create(NAME,
+                "create index if not exists " + NAME + " on cake using gin " + CakeRepository.SEARCH_DOCUMENT);
+    }
+
+    /**
+     * Returns whether cakes can be searched with the full-text index of the database.
+     */
+    public boolean isAvailable() {
+        return available;
+    }
+}
@@ -0,0 +1,67 @@
+package app.config;
+
+import app.model.Cake;
+import app.model.CustomerOrder;
+import app.model.Role;
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Regions of the Hibernate second-level cache. Reference data regions are bounded and expire;
+ * the update timestamps region must outlive every cached query result, so it is left unbounded.
+ */
+@Configuration
+public class EntityCacheConfig {
+
+    public static final String QUERY_RESULTS_REGION = "default-query-results-region";
+    public static final String UPDATE_TIMESTAMPS_REGION = "default-update-timestamps-region";
+
+    public static final List<String> DATA_REGIONS = List.of(
+            Cake.class.getName(),
+            Role.class.getName(),
+            CustomerOrder.class.getName() + ".cakesOrdered");
+
+    @Value("${bezkoder.app.entityCacheTtlSeconds:3600}")
+    private long entityCacheTtlSeconds;
+
+    @Value("${bezkoder.app.entityCacheSize:10000}")
+    private long entityCacheSize;
+
+    @Bean
+    public CacheManager entityCacheManager() {
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName()).getCacheManager();
+        CaffeineConfiguration<Object, Object> bounded = new CaffeineConfiguration<>()
+                .setMaximumSize(OptionalLong.of(entityCacheSize))
+                .setExpireAfterWrite(OptionalLong.of(TimeUnit.SECONDS.toNanos(entityCacheTtlSeconds)));
+        for (String region : DATA_REGIONS) {
+            createIfMissing(cacheManager, region, bounded);
+        }
+        createIfMissing(cacheManager, QUERY_RESULTS_REGION, bounded);
+        createIfMissing(cacheManager, UPDATE_TIMESTAMPS_REGION, new CaffeineConfiguration<>());
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer entityCacheCustomizer(CacheManager entityCacheManager) {
+        return properties -> properties.put(ConfigSettings.CACHE_MANAGER, entityCacheManager);
+    }
+
+    // the caching provider hands every application context in the JVM the same manager
+    private static void createIfMissing(CacheManager cacheManager, String region,
+                                        CaffeineConfiguration<Object, Object> configuration) {
+        if (cacheManager.getCache(region) == null) {
+            cacheManager.createCache(region, configuration);
+        }
+    }
+}
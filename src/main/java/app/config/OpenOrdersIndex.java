@@ -0,0 +1,37 @@
+package app.config;
+
+import app.enums.OrderStatus;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.stream.Collectors;
+
+/**
+ * Partial index on (delivery_date, id) of the orders in an open status, behind GET
+ * /server/customerOrders/open. Delivered and cancelled orders are left out, so it stays small
+ * as they pile up; CustomerOrderRepository.findOpenDTOs names the same statuses as literals so
+ * that the planner can match it. H2 has no partial indexes and scans instead.
+ */
+@Component
+public class OpenOrdersIndex {
+
+    private static final String NAME = "customer_order_open_delivery_date_idx";
+
+    private final PostgresIndexInitializer indexInitializer;
+
+    public OpenOrdersIndex(PostgresIndexInitializer indexInitializer) {
+        this.indexInitializer = indexInitializer;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void create() {
+        indexInitializer.create(NAME, "create index if not exists " + NAME + " on customer_order (delivery_date, id) where " + predicate());
+    }
+
+    private static String predicate() {
+        return OrderStatus.open().stream()
+                .map(status -> "'" + status.name() + "'")
+                .collect(Collectors.joining(", ", "status in (", ")"));
+    }
+}
@@ -0,0 +1,60 @@
+package app.config;
+
+import app.enums.OrderStatus;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Rewrites the free-form statuses stored before orders had an OrderStatus, such as "pending" or
+ * "Delivered", to the names Hibernate reads. It runs before the application serves requests and
+ * does nothing once every row holds a known name. Hibernate cannot load an order whose status it
+ * does not know, so the application refuses to start while such a status is left.
+ */
+@Component
+public class OrderStatusMigration {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderStatusMigration.class);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // only injected so that Hibernate has updated the schema before the migration runs
+    public OrderStatusMigration(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void migrate() {
+        // soft-deleted orders too, the purge and a restore by hand still read them
+        List<String> legacy = jdbcTemplate.queryForList(
+                "select distinct status from customer_order where status is null or status not in " + names(), String.class);
+        List<String> unknown = new ArrayList<>();
+        for (String status : legacy) {
+            OrderStatus mapped = OrderStatus.parse(status);
+            if (mapped == null) {
+                unknown.add(status);
+                continue;
+            }
+            int migrated = jdbcTemplate.update("update customer_order set status = ? where status = ?", mapped.name(), status);
+            logger.info("Migrated {} orders from status '{}' to {}", migrated, status, mapped);
+        }
+        if (!unknown.isEmpty()) {
+            throw new IllegalStateException("Orders have statuses that cannot be mapped to an OrderStatus: " + unknown
+                    + ". Set them to one of " + Arrays.toString(OrderStatus.values()) + " before starting the application");
+        }
+    }
+
+    private static String names() {
+        return Arrays.stream(OrderStatus.values())
+                .map(status -> "'" + status.name() + "'")
+                .collect(Collectors.joining(", ", "(", ")"));
+    }
+}
@@ -0,0 +1,43 @@
+package app.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Runs the DDL of indexes that JPA has no annotation for, on PostgreSQL only. The application
+ * works without them, only slower, so a failure is logged rather than stopping the start.
+ */
+@Component
+public class PostgresIndexInitializer {
+
+    private static final Logger logger = LoggerFactory.getLogger(PostgresIndexInitializer.class);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public PostgresIndexInitializer(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Runs the DDL, which should be idempotent, and returns whether the index exists afterwards.
+     * Other databases are left alone and get false.
+     */
+    public boolean create(String name, String ddl) {
+        try {
+            String database = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                    connection.getMetaData().getDatabaseProductName());
+            if (!"PostgreSQL".equals(database)) {
+                return false;
+            }
+            jdbcTemplate.execute(ddl);
+            return true;
+        } catch (DataAccessException e) {
+            logger.warn("Cannot create the index {}: {}", name, e.getMessage());
+            return false;
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package app.config;
+
+import app.controller.StorefrontHandler;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.codec.json.Jackson2JsonDecoder;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.http.server.reactive.ReactorHttpHandlerAdapter;
+import org.springframework.web.reactive.function.server.HandlerStrategies;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.resources.LoopResources;
+
+/**
+ * Public read-only storefront, served next to the servlet admin API by its own Reactor Netty
+ * server on a few event-loop threads.
+ */
+@Configuration
+public class StorefrontServerConfig {
+
+    @Value("${bezkoder.app.storefrontPort:8081}")
+    private int storefrontPort;
+
+    @Value("${bezkoder.app.storefrontEventLoops:2}")
+    private int storefrontEventLoops;
+
+    @Value("${bezkoder.app.storefrontJdbcThreads:10}")
+    private int storefrontJdbcThreads;
+
+    @Bean
+    public RouterFunction<ServerResponse> storefrontRoutes(StorefrontHandler handler) {
+        return RouterFunctions.route()
+                .GET("/storefront/cakes", handler::getCakes)
+                .GET("/storefront/cakes/{id:\\d+}", handler::getCake)
+                .GET("/storefront/orders/{id:\\d+}", handler::getOrder)
+                .build();
+    }
+
+    /**
+     * Runs the storefront's database calls. Sized like the connection pool, more threads would
+     * only wait for a connection.
+     */
+    @Bean(destroyMethod = "dispose")
+    public Scheduler storefrontScheduler() {
+        return Schedulers.newBoundedElastic(storefrontJdbcThreads, Schedulers.DEFAULT_BOUNDED_ELASTIC_QUEUESIZE,
+                "storefront-jdbc");
+    }
+
+    @Bean(destroyMethod = "dispose")
+    public LoopResources storefrontLoops() {
+        return LoopResources.create("storefront", storefrontEventLoops, true);
+    }
+
+    @Bean(destroyMethod = "disposeNow")
+    @ConditionalOnProperty(name = "bezkoder.app.storefrontEnabled", havingValue = "true", matchIfMissing = true)
+    public DisposableServer storefrontServer(RouterFunction<ServerResponse> storefrontRoutes, LoopResources storefrontLoops,
+                                             ObjectMapper objectMapper) {
+        HandlerStrategies strategies = HandlerStrategies.builder()
+                .codecs(codecs -> {
+                    codecs.defaultCodecs().jackson2JsonEncoder(new Jackson2JsonEncoder(objectMapper));
+                    codecs.defaultCodecs().jackson2JsonDecoder(new Jackson2JsonDecoder(objectMapper));
+                })
+                .build();
+        return HttpServer.create()
+                .port(storefrontPort)
+                .runOn(storefrontLoops)
+                .handle(new ReactorHttpHandlerAdapter(RouterFunctions.toHttpHandler(storefrontRoutes, strategies)))
+                .bindNow();
+    }
+}
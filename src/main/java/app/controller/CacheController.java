@@ -0,0 +1,38 @@
+package app.controller;
+
+import app.dto.CacheRegionStatsDTO;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.web.bind.annotation.*;
+import app.service.EntityCacheService;
+
+import java.util.List;
+
+@RestController
+@RequestMapping(value = "server/cache")
+@Tag(name = "Cache", description = "API for cache monitoring.")
+public class CacheController {
+
+    private final EntityCacheService entityCacheService;
+
+    public CacheController(EntityCacheService entityCacheService) {
+        this.entityCacheService = entityCacheService;
+    }
+
+    @Operation(
+            summary = "Get the statistics of the second-level cache",
+            description = "The operation returns, for each cached entity, collection and query region, how many reads were served from the cache and how many went to the database.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Statistics returned.",
+                    content = {@Content(mediaType = "application/json", schema = @Schema(implementation = CacheRegionStatsDTO.class))}),
+            @ApiResponse(responseCode = "401", description = "Request is not authenticated.", content = @Content),
+            @ApiResponse(responseCode = "403", description = "Request is not authorized.", content = @Content)})
+    @RequestMapping(value = "/regions", method = RequestMethod.GET)
+    public List<CacheRegionStatsDTO> getRegionStats() {
+        return entityCacheService.getRegionStats();
+    }
+}
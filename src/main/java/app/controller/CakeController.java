@@ -1,5 +1,6 @@
 package app.controller;
 
+import app.dto.CacheStatsDTO;
 import app.dto.CakeDTO;
 import app.mapper.CakeMapper;
 import io.swagger.v3.oas.annotations.Operation;
@@ -10,15 +11,16 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import app.model.Cake;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.web.multipart.MultipartFile;
+import app.service.CakeCatalogueCache;
 import app.service.CakeService;
 
 import java.util.List;
-import java.util.Optional;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping(value = "server/cakes")
@@ -27,23 +29,38 @@ public class CakeController {
 
     private final CakeService cakeService;
     private final CakeMapper cakeMapper;
+    private final CakeCatalogueCache cakeCatalogueCache;
 
 
-    public CakeController(CakeService cakeService, CakeMapper cakeMapper) {
+    public CakeController(CakeService cakeService, CakeMapper cakeMapper, CakeCatalogueCache cakeCatalogueCache) {
         this.cakeService = cakeService;
         this.cakeMapper = cakeMapper;
+        this.cakeCatalogueCache = cakeCatalogueCache;
     }
 
-    @Operation(summary = "Get all the cakes.")
+    @Operation(
+            summary = "Get all the cakes.",
+            description = "The operation returns one page of cakes ordered by id. Pass the returned nextCursor as 'after' to fetch the next page. " +
+                    "Send the returned ETag in If-None-Match to get 304 while no cake has changed.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Cakes returned.",
                     content = {@Content(mediaType = "application/json", schema = @Schema(implementation = Cake.class))}),
+            @ApiResponse(responseCode = "304", description = "Cakes not modified.", content = @Content),
             @ApiResponse(responseCode = "401", description = "Request is not authenticated.", content = @Content),
             @ApiResponse(responseCode = "403", description = "Request is not authorized.", content = @Content),
             @ApiResponse(responseCode = "404", description = "Cake not found.", content = @Content)})
     @RequestMapping(value = "all", method = RequestMethod.GET)
-    public List<CakeDTO> getAllCakes() {
-        return cakeService.getAll().stream().map(cakeMapper::toDTO).collect(Collectors.toList());
+    public ResponseEntity<byte[]> getAllCakes(
+            @Parameter(description = "id of the last cake of the previous page")
+            @RequestParam(required = false) Long after,
+            @Parameter(description = "maximum number of cakes returned, at most 500")
+            @RequestParam(defaultValue = "50") int limit,
+            WebRequest request) {
+        // read the version before the body so a concurrent change can only make the ETag older
+        if (request.checkNotModified("cakes-" + cakeCatalogueCache.getCatalogueVersion())) {
+            return null;
+        }
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(cakeCatalogueCache.getPage(after, limit));
     }
 
     @Operation(
@@ -52,16 +69,57 @@ public class CakeController {
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Cake found.",
                     content = {@Content(mediaType = "application/json", schema = @Schema(implementation = Cake.class))}),
+            @ApiResponse(responseCode = "304", description = "Cake not modified.", content = @Content),
             @ApiResponse(responseCode = "400", description = "Invalid id supplied.", content = @Content),
             @ApiResponse(responseCode = "401", description = "Request is not authenticated.", content = @Content),
             @ApiResponse(responseCode = "403", description = "Request is not authorized.", content = @Content),
             @ApiResponse(responseCode = "404", description = "Cake not found.", content = @Content)})
     @RequestMapping(value = "/{id}", method = RequestMethod.GET)
-    public ResponseEntity<CakeDTO> findById(
+    public ResponseEntity<byte[]> findById(
             @Parameter(description = "id of cake to be searched")
-            @PathVariable Long id) {
-        Optional<Cake> cake = cakeService.findById(id);
-        return cake.map(value -> new ResponseEntity<>(cakeMapper.toDTO(value), HttpStatus.OK)).orElseGet(() -> new ResponseEntity<>(null, HttpStatus.NOT_FOUND));
+            @PathVariable Long id,
+            WebRequest request) {
+        String version = cakeCatalogueCache.getCakeVersion(id);
+        if (version == null) {
+            return new ResponseEntity<>(null, HttpStatus.NOT_FOUND);
+        }
+        if (request.checkNotModified("cake-" + id + "-" + version)) {
+            return null;
+        }
+        byte[] cake = cakeCatalogueCache.getCake(id);
+        return cake == null ? new ResponseEntity<>(null, HttpStatus.NOT_FOUND)
+                : ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(cake);
+    }
+
+    @Operation(
+            summary = "Search the cakes by name and description",
+            description = "The operation returns the cakes containing every word of the query, the last word as a prefix so it can be called as the user types. " +
+                    "Cakes matching in their name come before cakes matching only in their description.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Matching cakes returned.",
+                    content = {@Content(mediaType = "application/json", schema = @Schema(implementation = CakeDTO.class))}),
+            @ApiResponse(responseCode = "401", description = "Request is not authenticated.", content = @Content),
+            @ApiResponse(responseCode = "403", description = "Request is not authorized.", content = @Content)})
+    @RequestMapping(value = "/search", method = RequestMethod.GET)
+    public List<CakeDTO> search(
+            @Parameter(description = "words to search for")
+            @RequestParam String q,
+            @Parameter(description = "maximum number of cakes returned, at most 500")
+            @RequestParam(defaultValue = "20") int limit) {
+        return cakeService.search(q, limit);
+    }
+
+    @Operation(
+            summary = "Get the statistics of the cake catalogue cache",
+            description = "The operation returns how many catalogue reads were served from the cache and how many loaded the cakes.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Statistics returned.",
+                    content = {@Content(mediaType = "application/json", schema = @Schema(implementation = CacheStatsDTO.class))}),
+            @ApiResponse(responseCode = "401", description = "Request is not authenticated.", content = @Content),
+            @ApiResponse(responseCode = "403", description = "Request is not authorized.", content = @Content)})
+    @RequestMapping(value = "/cache", method = RequestMethod.GET)
+    public CacheStatsDTO getCacheStats() {
+        return cakeCatalogueCache.getStats();
     }
 
     @Operation(
@@ -100,6 +158,24 @@ public class CakeController {
                 .body(cakeMapper.toDTO(savedCake));
     }
 
+    @Operation(
+            summary = "Creation of several cakes at once",
+            description = "The operation creates all the cakes in one transaction with batched inserts and returns their final values.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "201", description = "Cakes created.",
+                    content = {@Content(mediaType = "application/json", schema = @Schema(implementation = Cake.class))}),
+            @ApiResponse(responseCode = "401", description = "Request is not authenticated.", content = @Content),
+            @ApiResponse(responseCode = "403", description = "Request is not authorized.", content = @Content)})
+    @RequestMapping(value = "/batch", method = RequestMethod.POST)
+    public ResponseEntity<List<CakeDTO>> newCakes(
+            @io.swagger.v3.oas.annotations.parameters.RequestBody(description = "New cakes data")
+            @RequestBody List<CakeDTO> cakes) {
+        List<Cake> savedCakes = cakeService.addCakes(cakes.stream().map(cakeMapper::toEntity).toList());
+        return ResponseEntity
+                .status(HttpStatus.CREATED)
+                .body(savedCakes.stream().map(cakeMapper::toDTO).toList());
+    }
+
     @Operation(
             summary = "Update of the cake",
             description = "The operation updates all the information of the cake with selected id and returns its final value.")
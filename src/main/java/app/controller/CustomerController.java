@@ -1,7 +1,11 @@
 package app.controller;
 
+import app.dto.CursorPageDTO;
 import app.dto.CustomerDTO;
+import app.dto.CustomerSummaryDTO;
+import app.dto.DeleteResultDTO;
 import app.mapper.CustomerMapper;
+import app.payload.response.MessageResponse;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -9,15 +13,16 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import app.model.Customer;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import app.service.CustomerService;
 
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping(value = "server/customers")
@@ -31,7 +36,9 @@ public class CustomerController {
         this.customerMapper = customerMapper;
     }
 
-    @Operation(summary = "Get all the customers.")
+    @Operation(
+            summary = "Get all the customers.",
+            description = "The operation returns one page of customers ordered by id. Pass the returned nextCursor as 'after' to fetch the next page.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Customers returned.",
                     content = {@Content(mediaType = "application/json", schema = @Schema(implementation = Customer.class))}),
@@ -39,8 +46,31 @@ public class CustomerController {
             @ApiResponse(responseCode = "403", description = "Request is not authorized.", content = @Content),
             @ApiResponse(responseCode = "404", description = "Customer not found.", content = @Content)})
     @RequestMapping(value = "all", method = RequestMethod.GET)
-    public List<CustomerDTO> getAllCustomers() {
-        return customerService.getAll().stream().map(customerMapper::toDTO).collect(Collectors.toList());
+    public CursorPageDTO<CustomerDTO> getAllCustomers(
+            @Parameter(description = "id of the last customer of the previous page")
+            @RequestParam(required = false) Long after,
+            @Parameter(description = "maximum number of customers returned, at most 500")
+            @RequestParam(defaultValue = "50") int limit) {
+        Slice<CustomerDTO> page = customerService.getDTOPage(after, limit);
+        return CursorPageDTO.of(page.getContent(), page.hasNext(), CustomerDTO::getId);
+    }
+
+    @Operation(
+            summary = "Find customers as their name or email is typed",
+            description = "The operation returns the customers having, for every word of the query, a word of their name or their email starting with it. " +
+                    "It is answered from memory and returns no orders.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Matching customers returned.",
+                    content = {@Content(mediaType = "application/json", schema = @Schema(implementation = CustomerSummaryDTO.class))}),
+            @ApiResponse(responseCode = "401", description = "Request is not authenticated.", content = @Content),
+            @ApiResponse(responseCode = "403", description = "Request is not authorized.", content = @Content)})
+    @RequestMapping(value = "typeahead", method = RequestMethod.GET)
+    public List<CustomerSummaryDTO> typeahead(
+            @Parameter(description = "beginning of the name or email words typed so far")
+            @RequestParam String q,
+            @Parameter(description = "maximum number of customers returned, at most 500")
+            @RequestParam(defaultValue = "10") int limit) {
+        return customerService.typeahead(q, limit);
     }
 
     @Operation(
@@ -49,6 +79,7 @@ public class CustomerController {
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Customer found.",
                     content = {@Content(mediaType = "application/json", schema = @Schema(implementation = Customer.class))}),
+            @ApiResponse(responseCode = "304", description = "Customer not modified.", content = @Content),
             @ApiResponse(responseCode = "400", description = "Invalid id supplied.", content = @Content),
             @ApiResponse(responseCode = "401", description = "Request is not authenticated.", content = @Content),
             @ApiResponse(responseCode = "403", description = "Request is not authorized.", content = @Content),
@@ -56,9 +87,17 @@ public class CustomerController {
     @RequestMapping(value = "/{id}", method = RequestMethod.GET)
     public ResponseEntity<CustomerDTO> findById(
             @Parameter(description = "id of customer to be searched")
-            @PathVariable Long id) {
-        Optional<Customer> customer = customerService.findById(id);
-        return customer.map(value -> new ResponseEntity<>(customerMapper.toDTO(value), HttpStatus.OK)).orElseGet(() -> new ResponseEntity<>(null, HttpStatus.NOT_FOUND));
+            @PathVariable Long id,
+            WebRequest request) {
+        Optional<String> version = customerService.getVersionTag(id);
+        if (version.isEmpty()) {
+            return new ResponseEntity<>(null, HttpStatus.NOT_FOUND);
+        }
+        if (request.checkNotModified("customer-" + id + "-" + version.get())) {
+            return null;
+        }
+        Optional<CustomerDTO> customer = customerService.findDTOById(id);
+        return customer.map(value -> new ResponseEntity<>(value, HttpStatus.OK)).orElseGet(() -> new ResponseEntity<>(null, HttpStatus.NOT_FOUND));
     }
 
     @Operation(
@@ -79,6 +118,27 @@ public class CustomerController {
         return ResponseEntity.ok(id);
     }
 
+    @Operation(
+            summary = "Deletion of several customers at once",
+            description = "The operation deletes the customers with the given ids, at most 1000, and all their orders, " +
+                    "with one statement per table whatever the number of orders.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Customers deleted.",
+                    content = {@Content(mediaType = "application/json", schema = @Schema(implementation = DeleteResultDTO.class))}),
+            @ApiResponse(responseCode = "400", description = "Too many ids supplied.", content = @Content),
+            @ApiResponse(responseCode = "401", description = "Request is not authenticated.", content = @Content),
+            @ApiResponse(responseCode = "403", description = "Request is not authorized.", content = @Content)})
+    @RequestMapping(method = RequestMethod.DELETE)
+    public ResponseEntity<?> deleteCustomers(
+            @Parameter(description = "ids of the customers to be deleted")
+            @RequestParam List<Long> ids) {
+        try {
+            return ResponseEntity.ok(new DeleteResultDTO(customerService.deleteByIds(ids)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new MessageResponse("Error: " + e.getMessage()));
+        }
+    }
+
     @Operation(
             summary = "Creation of a new customer",
             description = "The operation creates a customer and returns its final value.")
@@ -97,6 +157,24 @@ public class CustomerController {
                 .body(customerMapper.toDTO(savedCustomer));
     }
 
+    @Operation(
+            summary = "Creation of several customers at once",
+            description = "The operation creates all the customers in one transaction with batched inserts and returns their final values.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "201", description = "Customers created.",
+                    content = {@Content(mediaType = "application/json", schema = @Schema(implementation = Customer.class))}),
+            @ApiResponse(responseCode = "401", description = "Request is not authenticated.", content = @Content),
+            @ApiResponse(responseCode = "403", description = "Request is not authorized.", content = @Content)})
+    @RequestMapping(value = "/batch", method = RequestMethod.POST)
+    public ResponseEntity<List<CustomerDTO>> newCustomers(
+            @io.swagger.v3.oas.annotations.parameters.RequestBody(description = "New customers data")
+            @RequestBody List<CustomerDTO> customers) {
+        List<Customer> savedCustomers = customerService.addCustomers(customers.stream().map(customerMapper::toEntity).toList());
+        return ResponseEntity
+                .status(HttpStatus.CREATED)
+                .body(savedCustomers.stream().map(customerMapper::toDTO).toList());
+    }
+
     @Operation(
             summary = "Update of the customer",
             description = "The operation updates all the information of the customer with selected id and returns its final value.")
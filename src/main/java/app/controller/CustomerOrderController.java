@@ -1,7 +1,19 @@
 package app.controller;
 
+import app.dto.CursorPageDTO;
 import app.dto.CustomerOrderDTO;
+import app.dto.DeleteResultDTO;
+import app.dto.ImportResultDTO;
+import app.dto.KeysetPageDTO;
+import app.dto.OrderLinesPatchDTO;
+import app.dto.OrderStatusDTO;
+import app.dto.SearchPageDTO;
+import app.enums.OrderStatus;
 import app.mapper.CustomerOrderMapper;
+import app.payload.response.MessageResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -9,15 +21,30 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import app.model.CustomerOrder;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.web.PageableDefault;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import app.service.CustomerOrderService;
+import app.service.InvalidStatusTransitionException;
+import app.service.OrderImportException;
+import app.service.OrderImportService;
+import app.service.OrderSearchCursor;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping(value = "server/customerOrders")
@@ -26,12 +53,19 @@ public class CustomerOrderController {
 
     private final CustomerOrderService customerOrderService;
     private final CustomerOrderMapper customerOrderMapper;
-    public CustomerOrderController(CustomerOrderService customerOrderService, CustomerOrderMapper customerOrderMapper) {
+    private final ObjectMapper objectMapper;
+    private final OrderImportService orderImportService;
+    public CustomerOrderController(CustomerOrderService customerOrderService, CustomerOrderMapper customerOrderMapper,
+                                   ObjectMapper objectMapper, OrderImportService orderImportService) {
         this.customerOrderService = customerOrderService;
         this.customerOrderMapper = customerOrderMapper;
+        this.objectMapper = objectMapper;
+        this.orderImportService = orderImportService;
     }
 
-    @Operation(summary = "Get all the customerOrders.")
+    @Operation(
+            summary = "Get all the customerOrders.",
+            description = "The operation returns one page of customerOrders ordered by id. Pass the returned nextCursor as 'after' to fetch the next page.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "CustomerOrders returned.",
                     content = {@Content(mediaType = "application/json", schema = @Schema(implementation = CustomerOrder.class))}),
@@ -39,8 +73,96 @@ public class CustomerOrderController {
             @ApiResponse(responseCode = "403", description = "Request is not authorized.", content = @Content),
             @ApiResponse(responseCode = "404", description = "CustomerOrder not found.", content = @Content)})
     @RequestMapping(value = "all", method = RequestMethod.GET)
-    public List<CustomerOrderDTO> getAllCustomerOrders() {
-        return customerOrderService.getAll().stream().map(customerOrderMapper::toDTO).collect(Collectors.toList());
+    public CursorPageDTO<CustomerOrderDTO> getAllCustomerOrders(
+            @Parameter(description = "id of the last customerOrder of the previous page")
+            @RequestParam(required = false) Long after,
+            @Parameter(description = "maximum number of customerOrders returned, at most 500")
+            @RequestParam(defaultValue = "50") int limit) {
+        Slice<CustomerOrderDTO> page = customerOrderService.getDTOPage(after, limit);
+        return CursorPageDTO.of(page.getContent(), page.hasNext(), CustomerOrderDTO::getId);
+    }
+
+    @Operation(
+            summary = "Search of customerOrders",
+            description = "The operation returns one page of the customerOrders matching all the given filters. Delivery dates are " +
+                    "inclusive and compared as UTC days. Sort by id, name, deliveryDate or status, e.g. sort=deliveryDate,desc. " +
+                    "Fetch the next page with the nextCursor of this one as after and the same filters and sort.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "CustomerOrders returned.",
+                    content = {@Content(mediaType = "application/json", schema = @Schema(implementation = KeysetPageDTO.class))}),
+            @ApiResponse(responseCode = "400", description = "Invalid sort property, page number or cursor supplied.", content = @Content),
+            @ApiResponse(responseCode = "401", description = "Request is not authenticated.", content = @Content),
+            @ApiResponse(responseCode = "403", description = "Request is not authorized.", content = @Content)})
+    @RequestMapping(value = "search", method = RequestMethod.GET)
+    public ResponseEntity<?> searchCustomerOrders(
+            @Parameter(description = "status of the customerOrders")
+            @RequestParam(required = false) OrderStatus status,
+            @Parameter(description = "first delivery date, yyyy-MM-dd")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate deliveredFrom,
+            @Parameter(description = "last delivery date, yyyy-MM-dd")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate deliveredUntil,
+            @Parameter(description = "id of the customer who placed the customerOrders")
+            @RequestParam(required = false) Long customerId,
+            @Parameter(description = "nextCursor of the previous page")
+            @RequestParam(required = false) String after,
+            @Parameter(description = "size (at most 500) and sort")
+            @PageableDefault(size = 50, sort = "deliveryDate") Pageable pageable) {
+        try {
+            Slice<CustomerOrderDTO> page = customerOrderService.search(status, deliveredFrom, deliveredUntil, customerId, after,
+                    pageable);
+            return ResponseEntity.ok(KeysetPageDTO.of(page.getContent(), page.hasNext(),
+                    order -> OrderSearchCursor.of(order, page.getSort())));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new MessageResponse("Error: " + e.getMessage()));
+        }
+    }
+
+    @Operation(
+            summary = "Open customerOrders",
+            description = "The operation returns one page of the customerOrders that are neither delivered nor cancelled, " +
+                    "by delivery date, up to an inclusive UTC day.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "CustomerOrders returned.",
+                    content = {@Content(mediaType = "application/json", schema = @Schema(implementation = SearchPageDTO.class))}),
+            @ApiResponse(responseCode = "401", description = "Request is not authenticated.", content = @Content),
+            @ApiResponse(responseCode = "403", description = "Request is not authorized.", content = @Content)})
+    @RequestMapping(value = "open", method = RequestMethod.GET)
+    public SearchPageDTO<CustomerOrderDTO> getOpenCustomerOrders(
+            @Parameter(description = "last delivery date, yyyy-MM-dd, no limit by default")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate deliveredUntil,
+            @Parameter(description = "zero-based page number")
+            @RequestParam(defaultValue = "0") int page,
+            @Parameter(description = "maximum number of customerOrders returned, at most 500")
+            @RequestParam(defaultValue = "50") int size) {
+        return SearchPageDTO.of(customerOrderService.getOpenDTOPage(deliveredUntil, page, size));
+    }
+
+    @Operation(
+            summary = "Export all the customerOrders.",
+            description = "The operation streams every customerOrder as newline-delimited JSON, one order per line.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "CustomerOrders streamed.",
+                    content = {@Content(mediaType = "application/x-ndjson", schema = @Schema(implementation = CustomerOrder.class))}),
+            @ApiResponse(responseCode = "401", description = "Request is not authenticated.", content = @Content),
+            @ApiResponse(responseCode = "403", description = "Request is not authorized.", content = @Content)})
+    @RequestMapping(value = "export", method = RequestMethod.GET, produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportCustomerOrders() {
+        StreamingResponseBody body = out -> {
+            SequenceWriter writer = objectMapper.writer()
+                    .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                    .withRootValueSeparator("\n")
+                    .writeValues(out);
+            customerOrderService.exportAll(order -> {
+                try {
+                    writer.write(customerOrderMapper.toDTO(order));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            writer.flush();
+            out.write('\n');
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
     }
 
     @Operation(
@@ -49,6 +171,7 @@ public class CustomerOrderController {
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "CustomerOrder found.",
                     content = {@Content(mediaType = "application/json", schema = @Schema(implementation = CustomerOrder.class))}),
+            @ApiResponse(responseCode = "304", description = "CustomerOrder not modified.", content = @Content),
             @ApiResponse(responseCode = "400", description = "Invalid id supplied.", content = @Content),
             @ApiResponse(responseCode = "401", description = "Request is not authenticated.", content = @Content),
             @ApiResponse(responseCode = "403", description = "Request is not authorized.", content = @Content),
@@ -56,9 +179,17 @@ public class CustomerOrderController {
     @RequestMapping(value = "/{id}", method = RequestMethod.GET)
     public ResponseEntity<CustomerOrderDTO> findById(
             @Parameter(description = "id of customerOrder to be searched")
-            @PathVariable Long id) {
-        Optional<CustomerOrder> customerOrder = customerOrderService.findById(id);
-        return customerOrder.map(value -> new ResponseEntity<>(customerOrderMapper.toDTO(value), HttpStatus.OK)).orElseGet(() -> new ResponseEntity<>(null, HttpStatus.NOT_FOUND));
+            @PathVariable Long id,
+            WebRequest request) {
+        Optional<String> version = customerOrderService.getVersionTag(id);
+        if (version.isEmpty()) {
+            return new ResponseEntity<>(null, HttpStatus.NOT_FOUND);
+        }
+        if (request.checkNotModified("order-" + id + "-" + version.get())) {
+            return null;
+        }
+        Optional<CustomerOrderDTO> customerOrder = customerOrderService.findDTOById(id);
+        return customerOrder.map(value -> new ResponseEntity<>(value, HttpStatus.OK)).orElseGet(() -> new ResponseEntity<>(null, HttpStatus.NOT_FOUND));
     }
 
     @Operation(
@@ -81,6 +212,38 @@ public class CustomerOrderController {
         return ResponseEntity.ok(id);
     }
 
+    @Operation(
+            summary = "Deletion of several customerOrders at once",
+            description = "The operation deletes the customerOrders with the given ids, at most 1000, or those delivered before a UTC day, " +
+                    "optionally only in one status, e.g. status=CANCELLED&deliveredBefore=2024-01-01. " +
+                    "It uses one statement per table whatever the number of customerOrders.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "CustomerOrders deleted.",
+                    content = {@Content(mediaType = "application/json", schema = @Schema(implementation = DeleteResultDTO.class))}),
+            @ApiResponse(responseCode = "400", description = "Neither ids nor deliveredBefore supplied, or too many ids.", content = @Content),
+            @ApiResponse(responseCode = "401", description = "Request is not authenticated.", content = @Content),
+            @ApiResponse(responseCode = "403", description = "Request is not authorized.", content = @Content)})
+    @RequestMapping(method = RequestMethod.DELETE)
+    public ResponseEntity<?> deleteCustomerOrders(
+            @Parameter(description = "ids of the customerOrders to be deleted")
+            @RequestParam(required = false) List<Long> ids,
+            @Parameter(description = "status of the customerOrders to be deleted, with deliveredBefore")
+            @RequestParam(required = false) OrderStatus status,
+            @Parameter(description = "first delivery date kept, yyyy-MM-dd")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate deliveredBefore) {
+        try {
+            if (ids != null && status == null && deliveredBefore == null) {
+                return ResponseEntity.ok(new DeleteResultDTO(customerOrderService.deleteByIds(ids)));
+            }
+            if (ids == null && deliveredBefore != null) {
+                return ResponseEntity.ok(new DeleteResultDTO(customerOrderService.deleteByStatusDeliveredBefore(status, deliveredBefore)));
+            }
+            return ResponseEntity.badRequest().body(new MessageResponse("Error: Supply either ids, or deliveredBefore and an optional status!"));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new MessageResponse("Error: " + e.getMessage()));
+        }
+    }
+
     @Operation(
             summary = "Creation of a new customerOrder",
             description = "The operation creates a customerOrder and returns its final value.")
@@ -100,16 +263,67 @@ public class CustomerOrderController {
                 .body(customerOrderMapper.toDTO(savedCustomerOrder));
     }
 
+    @Operation(
+            summary = "Creation of several customerOrders at once",
+            description = "The operation creates all the customerOrders in one transaction with batched inserts and returns their final values.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "201", description = "CustomerOrders created.",
+                    content = {@Content(mediaType = "application/json", schema = @Schema(implementation = CustomerOrder.class))}),
+            @ApiResponse(responseCode = "401", description = "Request is not authenticated.", content = @Content),
+            @ApiResponse(responseCode = "403", description = "Request is not authorized.", content = @Content)})
+    @RequestMapping(value = "/batch", method = RequestMethod.POST)
+    public ResponseEntity<List<CustomerOrderDTO>> newCustomerOrders(
+            @io.swagger.v3.oas.annotations.parameters.RequestBody(description = "New customerOrders data")
+            @RequestBody List<CustomerOrderDTO> customerOrders) {
+        List<CustomerOrder> savedCustomerOrders = customerOrderService.addCustomerOrders(customerOrders.stream().map(customerOrderMapper::toEntity).toList());
+        return ResponseEntity
+                .status(HttpStatus.CREATED)
+                .body(savedCustomerOrders.stream().map(customerOrderMapper::toDTO).toList());
+    }
+
+    @Operation(
+            summary = "Import of customerOrders",
+            description = "The operation streams a CSV (with a header line) or NDJSON file of orders into the database, " +
+                    "creating missing customers by email and resolving cakes by name. Invalid lines are skipped and reported.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "CustomerOrders imported.",
+                    content = {@Content(mediaType = "application/json", schema = @Schema(implementation = ImportResultDTO.class))}),
+            @ApiResponse(responseCode = "400", description = "Invalid file supplied. When part of it was already imported, " +
+                    "the body is the result of that part with the error.", content = @Content),
+            @ApiResponse(responseCode = "401", description = "Request is not authenticated.", content = @Content),
+            @ApiResponse(responseCode = "403", description = "Request is not authorized.", content = @Content),
+            @ApiResponse(responseCode = "500", description = "Import failed. When part of it was already imported, " +
+                    "the body is the result of that part with the error.", content = @Content)})
+    @RequestMapping(value = "/import", method = RequestMethod.POST, consumes = {"text/csv", MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<?> importCustomerOrders(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            @io.swagger.v3.oas.annotations.parameters.RequestBody(description = "CSV or NDJSON file of orders")
+            InputStream body) throws IOException {
+        try {
+            ImportResultDTO result = MediaType.APPLICATION_NDJSON.isCompatibleWith(MediaType.parseMediaType(contentType))
+                    ? orderImportService.importNdjson(body)
+                    : orderImportService.importCsv(body);
+            return ResponseEntity.ok(result);
+        } catch (OrderImportException e) {
+            // earlier chunks are committed, the result tells what they imported
+            return ResponseEntity.status(e.getCause() instanceof IllegalArgumentException ? HttpStatus.BAD_REQUEST
+                    : HttpStatus.INTERNAL_SERVER_ERROR).body(e.getResult());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new MessageResponse("Error: " + e.getMessage()));
+        }
+    }
+
     @Operation(
             summary = "Update of the customerOrder",
-            description = "The operation updates all the information of the customerOrder with selected id and returns its final value.")
+            description = "The operation updates all the information of the customerOrder with selected id and returns its final value. Without a status, the order keeps its current one.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "CustomerOrder updated.",
                     content = {@Content(mediaType = "application/json", schema = @Schema(implementation = CustomerOrder.class))}),
             @ApiResponse(responseCode = "400", description = "Invalid id supplied.", content = @Content),
             @ApiResponse(responseCode = "401", description = "Request is not authenticated.", content = @Content),
             @ApiResponse(responseCode = "403", description = "Request is not authorized.", content = @Content),
-            @ApiResponse(responseCode = "404", description = "customerOrder not found.", content = @Content)})
+            @ApiResponse(responseCode = "404", description = "customerOrder not found.", content = @Content),
+            @ApiResponse(responseCode = "409", description = "Status cannot be reached from the current one.", content = @Content)})
     @RequestMapping(value = "/{id}", method = RequestMethod.PUT)
     public ResponseEntity<CustomerOrderDTO> updateCustomerOrder(
             @Parameter(description = "id of customerOrder to be updated")
@@ -121,4 +335,60 @@ public class CustomerOrderController {
                 .status(HttpStatus.OK)
                 .body(customerOrderMapper.toDTO(updatedCustomerOrder));
     }
+
+    @Operation(
+            summary = "Change of the cakes of the customerOrder",
+            description = "The operation adds and removes cakes of the customerOrder with selected id and returns its final value. " +
+                    "A cake listed twice is added, or removed, twice. Only the lines of the cakes listed are written.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "CustomerOrder updated.",
+                    content = {@Content(mediaType = "application/json", schema = @Schema(implementation = CustomerOrderDTO.class))}),
+            @ApiResponse(responseCode = "400", description = "Unknown cake, or cake removed more times than ordered.", content = @Content),
+            @ApiResponse(responseCode = "401", description = "Request is not authenticated.", content = @Content),
+            @ApiResponse(responseCode = "403", description = "Request is not authorized.", content = @Content),
+            @ApiResponse(responseCode = "404", description = "customerOrder not found.", content = @Content)})
+    @RequestMapping(value = "/{id}/cakes", method = RequestMethod.PATCH)
+    public ResponseEntity<?> updateCakesOrdered(
+            @Parameter(description = "id of customerOrder to be updated")
+            @PathVariable Long id,
+            @io.swagger.v3.oas.annotations.parameters.RequestBody(description = "ids of the cakes to add and to remove")
+            @RequestBody OrderLinesPatchDTO lines) {
+        try {
+            Optional<CustomerOrderDTO> customerOrder = customerOrderService.updateCakesOrdered(id, lines.getAdd(), lines.getRemove());
+            return customerOrder.<ResponseEntity<?>>map(ResponseEntity::ok)
+                    .orElseGet(() -> new ResponseEntity<>(null, HttpStatus.NOT_FOUND));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new MessageResponse("Error: " + e.getMessage()));
+        }
+    }
+
+    @Operation(
+            summary = "Change of the status of the customerOrder",
+            description = "The operation sets the status of the customerOrder with selected id, without reading the rest of it.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Status updated.",
+                    content = {@Content(mediaType = "application/json", schema = @Schema(implementation = OrderStatusDTO.class))}),
+            @ApiResponse(responseCode = "400", description = "Invalid status supplied.", content = @Content),
+            @ApiResponse(responseCode = "401", description = "Request is not authenticated.", content = @Content),
+            @ApiResponse(responseCode = "403", description = "Request is not authorized.", content = @Content),
+            @ApiResponse(responseCode = "404", description = "customerOrder not found.", content = @Content),
+            @ApiResponse(responseCode = "409", description = "Status cannot be reached from the current one.", content = @Content)})
+    @RequestMapping(value = "/{id}/status", method = RequestMethod.PATCH)
+    public ResponseEntity<OrderStatusDTO> updateStatus(
+            @Parameter(description = "id of customerOrder to be updated")
+            @PathVariable Long id,
+            @io.swagger.v3.oas.annotations.parameters.RequestBody(description = "New status")
+            @RequestBody OrderStatusDTO status) {
+        if (status.getStatus() == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        return customerOrderService.updateStatus(id, status.getStatus())
+                .map(updated -> ResponseEntity.ok(new OrderStatusDTO(id, updated)))
+                .orElseGet(() -> new ResponseEntity<>(null, HttpStatus.NOT_FOUND));
+    }
+
+    @ExceptionHandler(InvalidStatusTransitionException.class)
+    public ResponseEntity<MessageResponse> invalidStatusTransition(InvalidStatusTransitionException e) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(new MessageResponse("Error: " + e.getMessage()));
+    }
 }
@@ -0,0 +1,70 @@
+package app.controller;
+
+import app.dto.ProductionDayDTO;
+import app.payload.response.MessageResponse;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import app.service.ProductionPlanService;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+
+@RestController
+@RequestMapping(value = "server/productionPlan")
+@Tag(name = "ProductionPlan", description = "API for the production plan of the bakery.")
+public class ProductionPlanController {
+
+    // longest range of days returned at once
+    private static final int MAX_DAYS = 366;
+
+    private final ProductionPlanService productionPlanService;
+
+    public ProductionPlanController(ProductionPlanService productionPlanService) {
+        this.productionPlanService = productionPlanService;
+    }
+
+    @Operation(
+            summary = "Get the production plan",
+            description = "The operation returns, for each delivery day of the range from today on, how many of each cake the orders ask for. " +
+                    "Dates are inclusive UTC days, by default the coming week.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Production plan returned.",
+                    content = {@Content(mediaType = "application/json", schema = @Schema(implementation = ProductionDayDTO.class))}),
+            @ApiResponse(responseCode = "400", description = "Invalid range supplied.", content = @Content),
+            @ApiResponse(responseCode = "401", description = "Request is not authenticated.", content = @Content),
+            @ApiResponse(responseCode = "403", description = "Request is not authorized.", content = @Content)})
+    @RequestMapping(method = RequestMethod.GET)
+    public ResponseEntity<?> getPlan(
+            @Parameter(description = "first delivery day, yyyy-MM-dd, today by default")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @Parameter(description = "last delivery day, yyyy-MM-dd, six days after the first by default")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate until) {
+        LocalDate first = from != null ? from : LocalDate.now(ZoneOffset.UTC);
+        LocalDate last = until != null ? until : first.plusDays(6);
+        if (last.isAfter(first.plusDays(MAX_DAYS - 1))) {
+            return ResponseEntity.badRequest().body(new MessageResponse("Error: at most " + MAX_DAYS + " days can be requested at once"));
+        }
+        return ResponseEntity.ok(productionPlanService.getPlan(first, last));
+    }
+
+    @Operation(
+            summary = "Rebuild the production plan",
+            description = "The operation counts the production plan again from the orders, after orders were changed outside of the API.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Production plan rebuilt.", content = @Content),
+            @ApiResponse(responseCode = "401", description = "Request is not authenticated.", content = @Content),
+            @ApiResponse(responseCode = "403", description = "Request is not authorized.", content = @Content)})
+    @RequestMapping(value = "/rebuild", method = RequestMethod.POST)
+    public ResponseEntity<Void> rebuild() {
+        productionPlanService.rebuild();
+        return ResponseEntity.ok().build();
+    }
+}
@@ -0,0 +1,106 @@
+package app.controller;
+
+import app.payload.response.MessageResponse;
+import app.security.jwt.JwtUtils;
+import app.service.CakeCatalogueCache;
+import app.service.CustomerOrderService;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.util.Optional;
+import java.util.concurrent.Callable;
+
+/**
+ * Read-only storefront API served by the reactive server of app.config.StorefrontServerConfig.
+ * The event loop only parses requests and writes responses; every call that may reach the
+ * database runs on the bounded storefront scheduler, so a slow client holds a socket but never
+ * a thread or a JDBC connection.
+ */
+@Component
+public class StorefrontHandler {
+
+    private final CakeCatalogueCache cakeCatalogueCache;
+    private final CustomerOrderService customerOrderService;
+    private final JwtUtils jwtUtils;
+    private final Scheduler storefrontScheduler;
+
+    public StorefrontHandler(CakeCatalogueCache cakeCatalogueCache, CustomerOrderService customerOrderService,
+                             JwtUtils jwtUtils, @Qualifier("storefrontScheduler") Scheduler storefrontScheduler) {
+        this.cakeCatalogueCache = cakeCatalogueCache;
+        this.customerOrderService = customerOrderService;
+        this.jwtUtils = jwtUtils;
+        this.storefrontScheduler = storefrontScheduler;
+    }
+
+    public Mono<ServerResponse> getCakes(ServerRequest request) {
+        // parsed inside the chain so that a malformed parameter reaches onErrorResume
+        return Mono.defer(() -> {
+                    Long after = request.queryParam("after").map(Long::valueOf).orElse(null);
+                    int limit = request.queryParam("limit").map(Integer::valueOf).orElse(50);
+                    return blocking(cakeCatalogueCache::getCatalogueVersion)
+                            .flatMap(version -> request.checkNotModified("cakes-" + version)
+                                    .switchIfEmpty(blocking(() -> cakeCatalogueCache.getPage(after, limit))
+                                            .flatMap(json -> json(json, "cakes-" + version))));
+                })
+                .onErrorResume(NumberFormatException.class, e -> badRequest("Error: Invalid paging parameters!"));
+    }
+
+    public Mono<ServerResponse> getCake(ServerRequest request) {
+        return pathId(request)
+                .flatMap(id -> blocking(() -> cakeCatalogueCache.getCakeVersion(id))
+                        .flatMap(version -> request.checkNotModified("cake-" + id + "-" + version)
+                                .switchIfEmpty(blocking(() -> cakeCatalogueCache.getCake(id))
+                                        .flatMap(json -> json(json, "cake-" + id + "-" + version))))
+                        .switchIfEmpty(ServerResponse.notFound().build()))
+                .onErrorResume(NumberFormatException.class, e -> badRequest("Error: Invalid id!"));
+    }
+
+    public Mono<ServerResponse> getOrder(ServerRequest request) {
+        if (!isAuthenticated(request)) {
+            return ServerResponse.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        return pathId(request)
+                .flatMap(id -> blocking(() -> customerOrderService.getVersionTag(id).orElse(null))
+                        .flatMap(version -> request.checkNotModified("order-" + id + "-" + version)
+                                .switchIfEmpty(blocking(() -> customerOrderService.findDTOById(id).orElse(null))
+                                        .flatMap(order -> ServerResponse.ok()
+                                                .eTag("order-" + id + "-" + version)
+                                                .contentType(MediaType.APPLICATION_JSON)
+                                                .bodyValue(order))))
+                        .switchIfEmpty(ServerResponse.notFound().build()))
+                .onErrorResume(NumberFormatException.class, e -> badRequest("Error: Invalid id!"));
+    }
+
+    private boolean isAuthenticated(ServerRequest request) {
+        Optional<String> header = request.headers().header(HttpHeaders.AUTHORIZATION).stream().findFirst();
+        return header.filter(value -> StringUtils.hasText(value) && value.startsWith("Bearer "))
+                .map(value -> jwtUtils.validateJwtToken(value.substring(7)))
+                .orElse(false);
+    }
+
+    // the route only admits digits, but they may still overflow a long
+    private static Mono<Long> pathId(ServerRequest request) {
+        return Mono.fromCallable(() -> Long.valueOf(request.pathVariable("id")));
+    }
+
+    // an empty Mono stands for a null result, the callers answer 404
+    private <T> Mono<T> blocking(Callable<T> call) {
+        return Mono.fromCallable(call).subscribeOn(storefrontScheduler);
+    }
+
+    private static Mono<ServerResponse> json(byte[] json, String etag) {
+        return ServerResponse.ok().eTag(etag).contentType(MediaType.APPLICATION_JSON).bodyValue(json);
+    }
+
+    private static Mono<ServerResponse> badRequest(String message) {
+        return ServerResponse.badRequest().contentType(MediaType.APPLICATION_JSON).bodyValue(new MessageResponse(message));
+    }
+}
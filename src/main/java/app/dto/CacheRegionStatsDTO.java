@@ -0,0 +1,18 @@
+package app.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CacheRegionStatsDTO {
+    private String region;
+
+    private long hits;
+
+    private long misses;
+
+    private long puts;
+}
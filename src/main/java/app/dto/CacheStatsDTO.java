@@ -0,0 +1,16 @@
+package app.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CacheStatsDTO {
+    private long hits;
+
+    private long misses;
+
+    private long entries;
+}
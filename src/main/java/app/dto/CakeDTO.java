@@ -1,8 +1,12 @@
 package app.dto;
 
+import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 @Data
+@AllArgsConstructor
+@NoArgsConstructor
 public class CakeDTO {
     private Long id;
     private String name;
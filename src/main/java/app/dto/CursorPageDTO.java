@@ -0,0 +1,23 @@
+package app.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.function.Function;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CursorPageDTO<T> {
+    private List<T> items;
+
+    // id to pass as "after" to fetch the next page, null when this is the last page
+    private Long nextCursor;
+
+    public static <T> CursorPageDTO<T> of(List<T> items, boolean hasNext, Function<T, Long> idOf) {
+        Long nextCursor = hasNext && !items.isEmpty() ? idOf.apply(items.get(items.size() - 1)) : null;
+        return new CursorPageDTO<>(items, nextCursor);
+    }
+}
@@ -1,10 +1,13 @@
 package app.dto;
 
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
+import java.util.ArrayList;
 import java.util.List;
 
 @Data
+@NoArgsConstructor
 public class CustomerDTO {
     private Long id;
 
@@ -18,4 +21,13 @@ public class CustomerDTO {
 
     private List<CustomerOrderDTO> ordersList;
 
+    public CustomerDTO(Long id, String firstName, String lastName, String email, String deliveryAddress) {
+        this.id = id;
+        this.firstName = firstName;
+        this.lastName = lastName;
+        this.email = email;
+        this.deliveryAddress = deliveryAddress;
+        this.ordersList = new ArrayList<>();
+    }
+
 }
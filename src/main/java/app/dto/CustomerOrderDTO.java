@@ -1,11 +1,16 @@
 package app.dto;
+
+import app.enums.OrderStatus;
 import com.fasterxml.jackson.annotation.JsonFormat;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 
 @Data
+@NoArgsConstructor
 public class CustomerOrderDTO {
 
     private Long id;
@@ -15,9 +20,18 @@ public class CustomerOrderDTO {
     @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd")
     private Date deliveryDate;
 
-    private String Status;
+    private OrderStatus Status;
 
     private Long customerId;
 
     private List<CakeDTO> cakesOrdered;
+
+    public CustomerOrderDTO(Long id, String name, Date deliveryDate, OrderStatus status, Long customerId) {
+        this.id = id;
+        this.name = name;
+        this.deliveryDate = deliveryDate;
+        this.Status = status;
+        this.customerId = customerId;
+        this.cakesOrdered = new ArrayList<>();
+    }
 }
@@ -0,0 +1,4 @@
+package app.dto;
+
+public record CustomerSummaryDTO(Long id, String firstName, String lastName, String email) {
+}
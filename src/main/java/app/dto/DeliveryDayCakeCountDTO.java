@@ -0,0 +1,6 @@
+package app.dto;
+
+import java.util.Date;
+
+public record DeliveryDayCakeCountDTO(Date deliveryDate, Long cakeId, Long quantity) {
+}
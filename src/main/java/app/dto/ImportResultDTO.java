@@ -0,0 +1,30 @@
+package app.dto;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class ImportResultDTO {
+    // only the first errors are reported, the rest are just counted in skipped
+    private static final int MAX_ERRORS = 100;
+
+    private long imported;
+
+    private long customersCreated;
+
+    private long skipped;
+
+    private List<String> errors = new ArrayList<>();
+
+    // why the import stopped before the end, the counts then cover the chunks committed before
+    private String error;
+
+    public void skip(long line, String reason) {
+        skipped++;
+        if (errors.size() < MAX_ERRORS) {
+            errors.add("line " + line + ": " + reason);
+        }
+    }
+}
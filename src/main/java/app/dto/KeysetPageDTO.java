@@ -0,0 +1,23 @@
+package app.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.function.Function;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class KeysetPageDTO<T> {
+    private List<T> items;
+
+    // cursor to pass as "after" with the same sort to fetch the next page, null when this is the last page
+    private String nextCursor;
+
+    public static <T> KeysetPageDTO<T> of(List<T> items, boolean hasNext, Function<T, String> cursorOf) {
+        String nextCursor = hasNext && !items.isEmpty() ? cursorOf.apply(items.get(items.size() - 1)) : null;
+        return new KeysetPageDTO<>(items, nextCursor);
+    }
+}
@@ -0,0 +1,8 @@
+package app.dto;
+
+public record OrderCakeDTO(Long orderId, Long cakeId, String name, String description) {
+
+    public CakeDTO toCakeDTO() {
+        return new CakeDTO(cakeId, name, description);
+    }
+}
@@ -0,0 +1,34 @@
+package app.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class OrderImportDTO {
+
+    @JsonIgnore
+    private long line;
+
+    private String customerEmail;
+
+    private String customerFirstName;
+
+    private String customerLastName;
+
+    private String customerDeliveryAddress;
+
+    private String name;
+
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd")
+    private LocalDate deliveryDate;
+
+    private String status;
+
+    // cake names, resolved against the catalogue during the import
+    private List<String> cakes = new ArrayList<>();
+}
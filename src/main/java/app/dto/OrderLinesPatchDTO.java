@@ -0,0 +1,17 @@
+package app.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class OrderLinesPatchDTO {
+    // a cake listed twice is added, or removed, twice
+    private List<Long> add = new ArrayList<>();
+    private List<Long> remove = new ArrayList<>();
+}
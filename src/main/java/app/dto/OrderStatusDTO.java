@@ -0,0 +1,14 @@
+package app.dto;
+
+import app.enums.OrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class OrderStatusDTO {
+    private Long id;
+    private OrderStatus status;
+}
@@ -0,0 +1,16 @@
+package app.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class PlannedCakeDTO {
+    private Long cakeId;
+
+    private String name;
+
+    private int quantity;
+}
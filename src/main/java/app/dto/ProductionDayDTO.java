@@ -0,0 +1,17 @@
+package app.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProductionDayDTO {
+    private LocalDate deliveryDate;
+
+    private List<PlannedCakeDTO> cakes;
+}
@@ -0,0 +1,26 @@
+package app.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Slice;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class SearchPageDTO<T> {
+    private List<T> items;
+
+    // zero-based number of this page
+    private int page;
+
+    private int size;
+
+    private boolean hasNext;
+
+    public static <T> SearchPageDTO<T> of(Slice<T> slice) {
+        return new SearchPageDTO<>(slice.getContent(), slice.getNumber(), slice.getSize(), slice.hasNext());
+    }
+}
@@ -0,0 +1,12 @@
+package app.dto;
+
+/**
+ * Row count, sum of the versions and highest id of a set of rows. Any insert, update or delete
+ * in the set changes at least one of them, which makes it usable as the version of a list.
+ */
+public record VersionAggregateDTO(Long count, Long versionSum, Long maxId) {
+
+    public String tag() {
+        return count + "." + versionSum + "." + maxId;
+    }
+}
@@ -0,0 +1,76 @@
+package app.enums;
+
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Life cycle of a customer order. DELIVERED and CANCELLED are terminal, every other status is
+ * open. CustomerOrderRepository.findOpenDTOs and the partial index of open orders list the open
+ * statuses too, and parse lists the spellings of every status; they have to follow any change here.
+ */
+public enum OrderStatus {
+
+    NEW,
+    IN_PROGRESS,
+    READY,
+    DELIVERED,
+    CANCELLED;
+
+    public boolean isOpen() {
+        return this != DELIVERED && this != CANCELLED;
+    }
+
+    /**
+     * Tells whether an order in this status may be put in the next one. Keeping the status is
+     * always allowed, so updates that leave it alone pass.
+     */
+    public boolean canBecome(OrderStatus next) {
+        return next == this || next(this).contains(next);
+    }
+
+    /**
+     * Returns the statuses an order may be in to be put in this one, this status included.
+     */
+    public Set<OrderStatus> reachableFrom() {
+        Set<OrderStatus> from = EnumSet.noneOf(OrderStatus.class);
+        for (OrderStatus status : values()) {
+            if (status.canBecome(this)) {
+                from.add(status);
+            }
+        }
+        return from;
+    }
+
+    public static Set<OrderStatus> open() {
+        return EnumSet.of(NEW, IN_PROGRESS, READY);
+    }
+
+    /**
+     * Reads a status typed by hand or stored before statuses were checked, ignoring case and
+     * separators, so "in progress" and "Delivered" are read too. Returns null when the text names
+     * no status.
+     */
+    public static OrderStatus parse(String text) {
+        if (text == null) {
+            return null;
+        }
+        return switch (text.trim().toUpperCase(Locale.ROOT).replace(' ', '_').replace('-', '_')) {
+            case "NEW", "PENDING", "CREATED" -> NEW;
+            case "IN_PROGRESS", "INPROGRESS", "PROCESSING" -> IN_PROGRESS;
+            case "READY" -> READY;
+            case "DELIVERED", "COMPLETED" -> DELIVERED;
+            case "CANCELLED", "CANCELED" -> CANCELLED;
+            default -> null;
+        };
+    }
+
+    private static Set<OrderStatus> next(OrderStatus status) {
+        return switch (status) {
+            case NEW -> EnumSet.of(IN_PROGRESS, READY, CANCELLED);
+            case IN_PROGRESS -> EnumSet.of(READY, CANCELLED);
+            case READY -> EnumSet.of(DELIVERED, CANCELLED);
+            case DELIVERED, CANCELLED -> EnumSet.noneOf(OrderStatus.class);
+        };
+    }
+}
@@ -5,7 +5,7 @@ import app.dto.CustomerDTO;
 import app.model.Customer;
 import org.mapstruct.Mapper;
 
-@Mapper(componentModel = "spring")
+@Mapper(componentModel = "spring", uses = CustomerOrderMapper.class)
 public interface CustomerMapper {
     CustomerDTO toDTO(Customer customer);
     Customer toEntity(CustomerDTO customerDTO);
@@ -1,11 +1,25 @@
 package app.mapper;
 
 import app.dto.CustomerOrderDTO;
+import app.model.Customer;
 import app.model.CustomerOrder;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 
 @Mapper(componentModel = "spring")
 public interface CustomerOrderMapper {
+    @Mapping(target = "customerId", source = "customer.id")
     CustomerOrderDTO toDTO(CustomerOrder customerOrder);
+
+    @Mapping(target = "customer", source = "customerId")
     CustomerOrder toEntity(CustomerOrderDTO customerOrderDTO);
+
+    default Customer customerReference(Long customerId) {
+        if (customerId == null) {
+            return null;
+        }
+        Customer customer = new Customer();
+        customer.setId(customerId);
+        return customer;
+    }
 }
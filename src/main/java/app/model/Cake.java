@@ -6,17 +6,22 @@ import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.List;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Setter
 @Getter
 @AllArgsConstructor
 @NoArgsConstructor
 public class Cake {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "cake_seq")
+    @SequenceGenerator(name = "cake_seq", sequenceName = "cake_seq", allocationSize = 50)
     @Column(name = "id", nullable = false)
     private Long id;
 
@@ -30,6 +35,9 @@ public class Cake {
     @ManyToMany(mappedBy = "cakesOrdered")
     private List<CustomerOrder> ordersList;
 
+    @Version
+    private Long version;
+
 }
 
 
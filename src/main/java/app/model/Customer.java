@@ -1,23 +1,32 @@
 package app.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.SQLRestriction;
 
 import java.util.ArrayList;
+import java.util.Date;
 import java.util.List;
 
 @Entity
+// the soft-deleted customers waiting for app.service.SoftDeletePurger
+@Table(indexes = @Index(name = "customer_deleted_at_idx", columnList = "deleted_at"))
+// soft-deleted customers are invisible to every query of Hibernate until they are purged
+@SQLRestriction("deleted_at is null")
 @Setter
 @Getter
 @AllArgsConstructor
 @NoArgsConstructor
 public class Customer {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "customer_seq")
+    @SequenceGenerator(name = "customer_seq", sequenceName = "customer_seq", allocationSize = 50)
     @Column(name = "id", nullable = false)
     private Long id;
 
@@ -34,8 +43,18 @@ public class Customer {
     private String deliveryAddress;
 
     @OneToMany(mappedBy = "customer", cascade = CascadeType.MERGE)
+    @BatchSize(size = 500)
     @JsonIgnoreProperties(value = {"customer"})
     private List<CustomerOrder> ordersList = new ArrayList<>();
 
+    @Version
+    private Long version;
+
+    // set instead of deleting the row when soft deletes are on, see app.service.SoftDeletePurger
+    @JsonIgnore
+    @Column(name = "deleted_at")
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date deletedAt;
+
 
 }
@@ -1,25 +1,41 @@
 package app.model;
 
 
+import app.enums.OrderStatus;
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.SQLRestriction;
 
 import java.util.Date;
 import java.util.List;
 
 
 @Entity
+@Table(indexes = {
+        // orders due on a day or in a date range, optionally with a status
+        @Index(name = "customer_order_delivery_date_status_idx", columnList = "delivery_date, status"),
+        // the orders of a customer, in delivery order
+        @Index(name = "customer_order_customer_id_delivery_date_idx", columnList = "customer_id, delivery_date"),
+        // the soft-deleted orders waiting for app.service.SoftDeletePurger
+        @Index(name = "customer_order_deleted_at_idx", columnList = "deleted_at")})
+// soft-deleted orders are invisible to every query of Hibernate until they are purged
+@SQLRestriction("deleted_at is null")
 @Setter
 @Getter
 @AllArgsConstructor
 @NoArgsConstructor
 public class CustomerOrder {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "customer_order_seq")
+    @SequenceGenerator(name = "customer_order_seq", sequenceName = "customer_order_seq", allocationSize = 50)
     @Column(name = "id", nullable = false)
     private Long id;
 
@@ -31,18 +47,30 @@ public class CustomerOrder {
     @Temporal(TemporalType.TIMESTAMP)
     private Date deliveryDate;
 
-    @Column(nullable = false)
-    private String Status;
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private OrderStatus Status;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "customer_id")
     private Customer customer;
 
     @ManyToMany
+    @BatchSize(size = 500)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     @JoinTable(
             name = "order_cakes",
             joinColumns = @JoinColumn(name = "cake_id"),
             inverseJoinColumns = @JoinColumn(name = "customer_order_id"))
     private List<Cake> cakesOrdered;
 
+    @Version
+    private Long version;
+
+    // set instead of deleting the row when soft deletes are on, see app.service.SoftDeletePurger
+    @JsonIgnore
+    @Column(name = "deleted_at")
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date deletedAt;
+
 }
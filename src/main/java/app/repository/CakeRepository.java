@@ -1,9 +1,42 @@
 package app.repository;
 
+import app.dto.CakeDTO;
+import app.dto.VersionAggregateDTO;
 import app.model.Cake;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
 @Repository
 public interface CakeRepository extends JpaRepository<Cake, Long> {
+    /**
+     * The words of a cake for PostgreSQL full-text search, the name weighing more than the
+     * description. The GIN index of app.config.CakeFullTextIndex is built on this expression.
+     */
+    String SEARCH_DOCUMENT = "(setweight(to_tsvector('simple', name), 'A') || setweight(to_tsvector('simple', description), 'B'))";
+
+    @Query("select new app.dto.CakeDTO(c.id, c.name, c.description) from Cake c where c.id > :id")
+    Slice<CakeDTO> findDTOsByIdGreaterThan(Long id, Pageable pageable);
+
+    @Query("select new app.dto.CakeDTO(c.id, c.name, c.description) from Cake c where c.id = :id")
+    Optional<CakeDTO> findDTOById(Long id);
+
+    List<Cake> findByNameIn(Collection<String> names);
+
+    @Query("select c.version from Cake c where c.id = :id")
+    Optional<Long> findVersionById(Long id);
+
+    @Query("select new app.dto.VersionAggregateDTO(count(c), coalesce(sum(c.version), 0), coalesce(max(c.id), 0)) from Cake c")
+    VersionAggregateDTO aggregateVersion();
+
+    @Query(value = "select * from cake where " + SEARCH_DOCUMENT + " @@ to_tsquery('simple', :query) "
+            + "order by ts_rank(" + SEARCH_DOCUMENT + ", to_tsquery('simple', :query)) desc, id limit :limit",
+            nativeQuery = true)
+    List<Cake> searchFullText(String query, int limit);
 }
@@ -0,0 +1,29 @@
+package app.repository;
+
+import app.dto.DeliveryDayCakeCountDTO;
+import app.model.CustomerOrder;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.Date;
+import java.util.List;
+
+public interface CustomerOrderDeletes {
+
+    /**
+     * Counts the cakes of the orders matching the specification by delivery date, as the
+     * production plan needs to forget them.
+     */
+    List<DeliveryDayCakeCountDTO> countCakesByDeliveryDate(Specification<CustomerOrder> specification);
+
+    /**
+     * Deletes the orders matching the specification and their lines with one DELETE per table,
+     * without loading them. Returns the number of orders deleted.
+     */
+    int deleteMatching(Specification<CustomerOrder> specification);
+
+    /**
+     * Marks the orders matching the specification as deleted with one UPDATE. Their rows stay
+     * until they are purged. Returns the number of orders marked.
+     */
+    int softDeleteMatching(Specification<CustomerOrder> specification, Date deletedAt);
+}
@@ -0,0 +1,66 @@
+package app.repository;
+
+import app.dto.DeliveryDayCakeCountDTO;
+import app.model.Cake;
+import app.model.CustomerOrder;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaDelete;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.CriteriaUpdate;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.Date;
+import java.util.List;
+
+class CustomerOrderDeletesImpl implements CustomerOrderDeletes {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<DeliveryDayCakeCountDTO> countCakesByDeliveryDate(Specification<CustomerOrder> specification) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<DeliveryDayCakeCountDTO> query = builder.createQuery(DeliveryDayCakeCountDTO.class);
+        Root<CustomerOrder> order = query.from(CustomerOrder.class);
+        Join<CustomerOrder, Cake> cake = order.join("cakesOrdered");
+        query.select(builder.construct(DeliveryDayCakeCountDTO.class, order.get("deliveryDate"), cake.get("id"),
+                builder.count(cake)));
+        Predicate predicate = specification.toPredicate(order, query, builder);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.groupBy(order.get("deliveryDate"), cake.get("id"));
+        return entityManager.createQuery(query).getResultList();
+    }
+
+    // Hibernate deletes the order_cakes rows of the matching orders first, with a subquery
+    @Override
+    public int deleteMatching(Specification<CustomerOrder> specification) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaDelete<CustomerOrder> delete = builder.createCriteriaDelete(CustomerOrder.class);
+        Root<CustomerOrder> order = delete.from(CustomerOrder.class);
+        Predicate predicate = specification.toPredicate(order, null, builder);
+        if (predicate != null) {
+            delete.where(predicate);
+        }
+        return entityManager.createQuery(delete).executeUpdate();
+    }
+
+    @Override
+    public int softDeleteMatching(Specification<CustomerOrder> specification, Date deletedAt) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaUpdate<CustomerOrder> update = builder.createCriteriaUpdate(CustomerOrder.class);
+        Root<CustomerOrder> order = update.from(CustomerOrder.class);
+        update.set(order.<Date>get("deletedAt"), deletedAt);
+        Predicate predicate = specification.toPredicate(order, null, builder);
+        if (predicate != null) {
+            update.where(predicate);
+        }
+        return entityManager.createQuery(update).executeUpdate();
+    }
+}
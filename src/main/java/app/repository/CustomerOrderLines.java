@@ -0,0 +1,27 @@
+package app.repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+public interface CustomerOrderLines {
+
+    /**
+     * Increments the version of the order, which locks it until the transaction ends, so the lines
+     * counted and updated next cannot change meanwhile. Returns false when there is no order with
+     * this id.
+     */
+    boolean lockOrder(Long orderId);
+
+    /**
+     * Counts how many times each of the cakes is on the order, leaving out the cakes it does not list.
+     */
+    Map<Long, Integer> countLines(Long orderId, Collection<Long> cakeIds);
+
+    /**
+     * Deletes all the lines of the removed cakes and inserts the added lines, in JDBC batches.
+     * The other lines are not touched. The order must be locked with {@link #lockOrder} first and
+     * must not be loaded in the persistence context, its cakes would not follow.
+     */
+    void updateLines(Long orderId, Collection<Long> removedCakeIds, List<Long> addedCakeIds);
+}
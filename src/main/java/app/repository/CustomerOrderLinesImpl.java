@@ -0,0 +1,96 @@
+package app.repository;
+
+import app.model.CustomerOrder;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.PreparedStatement;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+class CustomerOrderLinesImpl implements CustomerOrderLines {
+
+    private static final String CAKES_ORDERED = CustomerOrder.class.getName() + ".cakesOrdered";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // soft-deleted orders are left alone, as Hibernate would
+    @Override
+    public boolean lockOrder(Long orderId) {
+        return entityManager.unwrap(Session.class).doReturningWork(connection -> {
+            try (PreparedStatement version = connection.prepareStatement(
+                    "update customer_order set version = version + 1 where id = ? and deleted_at is null")) {
+                version.setLong(1, orderId);
+                return version.executeUpdate() == 1;
+            }
+        });
+    }
+
+    @Override
+    public Map<Long, Integer> countLines(Long orderId, Collection<Long> cakeIds) {
+        Map<Long, Integer> lines = new HashMap<>();
+        if (cakeIds.isEmpty()) {
+            return lines;
+        }
+        entityManager.createQuery("select c.id, count(c) from CustomerOrder o join o.cakesOrdered c "
+                        + "where o.id = :orderId and c.id in :cakeIds group by c.id", Object[].class)
+                .setParameter("orderId", orderId)
+                .setParameter("cakeIds", cakeIds)
+                .getResultList()
+                .forEach(row -> lines.put((Long) row[0], ((Long) row[1]).intValue()));
+        return lines;
+    }
+
+    // order_cakes keeps the order id in cake_id and the cake id in customer_order_id, see CustomerOrder.cakesOrdered
+
+    @Override
+    public void updateLines(Long orderId, Collection<Long> removedCakeIds, List<Long> addedCakeIds) {
+        Session session = entityManager.unwrap(Session.class);
+        session.doWork(connection -> {
+            if (!removedCakeIds.isEmpty()) {
+                try (PreparedStatement delete = connection.prepareStatement(
+                        "delete from order_cakes where cake_id = ? and customer_order_id = ?")) {
+                    for (Long cakeId : removedCakeIds) {
+                        delete.setLong(1, orderId);
+                        delete.setLong(2, cakeId);
+                        delete.addBatch();
+                    }
+                    delete.executeBatch();
+                }
+            }
+            if (!addedCakeIds.isEmpty()) {
+                try (PreparedStatement insert = connection.prepareStatement(
+                        "insert into order_cakes (cake_id, customer_order_id) values (?, ?)")) {
+                    for (Long cakeId : addedCakeIds) {
+                        insert.setLong(1, orderId);
+                        insert.setLong(2, cakeId);
+                        insert.addBatch();
+                    }
+                    insert.executeBatch();
+                }
+            }
+        });
+        evictCakesOrdered(session.getSessionFactory(), orderId);
+    }
+
+    // the lines bypass Hibernate, so the cached collection is dropped by hand, again once committed
+    // in case a concurrent load cached the old lines meanwhile
+    private static void evictCakesOrdered(SessionFactory sessionFactory, Long orderId) {
+        sessionFactory.getCache().evictCollectionData(CAKES_ORDERED, orderId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    sessionFactory.getCache().evictCollectionData(CAKES_ORDERED, orderId);
+                }
+            });
+        }
+    }
+}
@@ -1,7 +1,93 @@
 package app.repository;
 
+import app.dto.CustomerOrderDTO;
+import app.dto.DeliveryDayCakeCountDTO;
+import app.dto.OrderCakeDTO;
+import app.enums.OrderStatus;
 import app.model.CustomerOrder;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
-public interface CustomerOrderRepository extends JpaRepository<CustomerOrder, Long> {
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
+
+public interface CustomerOrderRepository extends JpaRepository<CustomerOrder, Long>, CustomerOrderSearch, CustomerOrderLines,
+        CustomerOrderDeletes {
+    // keeps the "in" lists of the projection queries well below the JDBC bind parameter limit
+    int IN_CHUNK_SIZE = 1000;
+
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    @Query("select o from CustomerOrder o order by o.id")
+    Stream<CustomerOrder> streamAll();
+
+    @Query("select new app.dto.CustomerOrderDTO(o.id, o.name, o.deliveryDate, o.Status, o.customer.id) " +
+            "from CustomerOrder o where o.id > :id")
+    Slice<CustomerOrderDTO> findDTOsByIdGreaterThan(Long id, Pageable pageable);
+
+    @Query("select new app.dto.CustomerOrderDTO(o.id, o.name, o.deliveryDate, o.Status, o.customer.id) " +
+            "from CustomerOrder o where o.id = :id")
+    Optional<CustomerOrderDTO> findDTOById(Long id);
+
+    @Query("select new app.dto.CustomerOrderDTO(o.id, o.name, o.deliveryDate, o.Status, o.customer.id) " +
+            "from CustomerOrder o where o.customer.id in :customerIds order by o.id")
+    List<CustomerOrderDTO> findDTOsByCustomerIdIn(Collection<Long> customerIds);
+
+    // the statuses are literals so PostgreSQL can use the partial index of open orders, see OrderStatus.open()
+    @Query("select new app.dto.CustomerOrderDTO(o.id, o.name, o.deliveryDate, o.Status, o.customer.id) from CustomerOrder o " +
+            "where o.Status in (app.enums.OrderStatus.NEW, app.enums.OrderStatus.IN_PROGRESS, app.enums.OrderStatus.READY) " +
+            "and o.deliveryDate < :before")
+    Slice<CustomerOrderDTO> findOpenDTOs(Date before, Pageable pageable);
+
+    @Query("select o.version from CustomerOrder o where o.id = :id")
+    Optional<Long> findVersionById(Long id);
+
+    @Query("select o.deliveryDate from CustomerOrder o where o.id = :id and o.Status in :statuses")
+    Optional<Date> findDeliveryDateByIdAndStatusIn(Long id, Collection<OrderStatus> statuses);
+
+    @Query("select o.Status from CustomerOrder o where o.id = :id")
+    Optional<OrderStatus> findStatusById(Long id);
+
+    /**
+     * Sets the status of the order if it currently is one of the given ones, without loading it.
+     * Returns the number of orders updated.
+     */
+    @Modifying
+    @Query("update CustomerOrder o set o.Status = :status, o.version = o.version + 1 where o.id = :id and o.Status in :from")
+    int updateStatus(Long id, OrderStatus status, Collection<OrderStatus> from);
+
+    @Query("select new app.dto.OrderCakeDTO(o.id, c.id, c.name, c.description) " +
+            "from CustomerOrder o join o.cakesOrdered c where o.id in :orderIds")
+    List<OrderCakeDTO> findOrderCakes(Collection<Long> orderIds);
+
+    @Query("select new app.dto.DeliveryDayCakeCountDTO(o.deliveryDate, c.id, count(c)) " +
+            "from CustomerOrder o join o.cakesOrdered c where o.deliveryDate >= :from and o.Status in :statuses " +
+            "group by o.deliveryDate, c.id")
+    List<DeliveryDayCakeCountDTO> countCakesByDeliveryDateFrom(Date from, Collection<OrderStatus> statuses);
+
+    default <T extends Collection<CustomerOrderDTO>> T fillCakesOrdered(T orders) {
+        Map<Long, CustomerOrderDTO> byId = new HashMap<>();
+        orders.forEach(order -> byId.put(order.getId(), order));
+        List<Long> ids = new ArrayList<>(byId.keySet());
+        for (int from = 0; from < ids.size(); from += IN_CHUNK_SIZE) {
+            List<Long> chunk = ids.subList(from, Math.min(from + IN_CHUNK_SIZE, ids.size()));
+            findOrderCakes(chunk).forEach(line -> byId.get(line.orderId()).getCakesOrdered().add(line.toCakeDTO()));
+        }
+        return orders;
+    }
 }
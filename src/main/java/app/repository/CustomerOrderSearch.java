@@ -0,0 +1,16 @@
+package app.repository;
+
+import app.dto.CustomerOrderDTO;
+import app.model.CustomerOrder;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.domain.Specification;
+
+public interface CustomerOrderSearch {
+
+    /**
+     * Returns one page of the orders matching the specification, without their cakes. The page
+     * is read one row past its size to tell whether there is a next page, nothing is counted.
+     */
+    Slice<CustomerOrderDTO> findDTOs(Specification<CustomerOrder> specification, Pageable pageable);
+}
@@ -0,0 +1,46 @@
+package app.repository;
+
+import app.dto.CustomerOrderDTO;
+import app.model.CustomerOrder;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+class CustomerOrderSearchImpl implements CustomerOrderSearch {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Slice<CustomerOrderDTO> findDTOs(Specification<CustomerOrder> specification, Pageable pageable) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<CustomerOrderDTO> query = builder.createQuery(CustomerOrderDTO.class);
+        Root<CustomerOrder> order = query.from(CustomerOrder.class);
+        query.select(builder.construct(CustomerOrderDTO.class, order.get("id"), order.get("name"),
+                order.get("deliveryDate"), order.get("Status"), order.get("customer").get("id")));
+        Predicate predicate = specification.toPredicate(order, query, builder);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.orderBy(QueryUtils.toOrders(pageable.getSort(), order, builder));
+
+        List<CustomerOrderDTO> rows = entityManager.createQuery(query)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize() + 1)
+                .getResultList();
+        boolean hasNext = rows.size() > pageable.getPageSize();
+        List<CustomerOrderDTO> content = new ArrayList<>(hasNext ? rows.subList(0, pageable.getPageSize()) : rows);
+        return new SliceImpl<>(content, pageable, hasNext);
+    }
+}
@@ -0,0 +1,95 @@
+package app.repository;
+
+import app.enums.OrderStatus;
+import app.model.CustomerOrder;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Filters of the order search and of the bulk deletes. A filter without a value matches every order, so the filters
+ * can be combined with and() whatever the caller supplied. Delivery dates are compared as UTC
+ * days, the zone the dates of the API are serialized in.
+ */
+public final class CustomerOrderSpecifications {
+
+    private CustomerOrderSpecifications() {
+    }
+
+    public static Specification<CustomerOrder> hasStatus(OrderStatus status) {
+        return (order, query, builder) -> status == null ? null : builder.equal(order.get("Status"), status);
+    }
+
+    public static Specification<CustomerOrder> hasStatusIn(Collection<OrderStatus> statuses) {
+        return (order, query, builder) -> order.get("Status").in(statuses);
+    }
+
+    public static Specification<CustomerOrder> ofCustomer(Long customerId) {
+        return (order, query, builder) -> customerId == null ? null : builder.equal(order.get("customer").get("id"), customerId);
+    }
+
+    public static Specification<CustomerOrder> hasIdIn(Collection<Long> ids) {
+        return (order, query, builder) -> ids == null ? null : order.get("id").in(ids);
+    }
+
+    public static Specification<CustomerOrder> ofCustomers(Collection<Long> customerIds) {
+        return (order, query, builder) -> customerIds == null ? null : order.get("customer").get("id").in(customerIds);
+    }
+
+    public static Specification<CustomerOrder> deliveredFrom(LocalDate from) {
+        return (order, query, builder) -> from == null ? null
+                : builder.greaterThanOrEqualTo(order.get("deliveryDate"), startOf(from));
+    }
+
+    public static Specification<CustomerOrder> deliveredUntil(LocalDate until) {
+        return (order, query, builder) -> until == null ? null
+                : builder.lessThan(order.get("deliveryDate"), startOf(until.plusDays(1)));
+    }
+
+    public static Specification<CustomerOrder> deliveredBefore(LocalDate before) {
+        return (order, query, builder) -> before == null ? null
+                : builder.lessThan(order.get("deliveryDate"), startOf(before));
+    }
+
+    /**
+     * Orders sorted after the order with the given values of the sort properties, so that a page
+     * starts where the previous one ended without skipping rows. The first property also bounds
+     * the range on its own, which lets the database seek its index to the start of the page.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public static Specification<CustomerOrder> sortedAfter(Sort sort, List<?> values) {
+        return (order, query, builder) -> {
+            if (values == null) {
+                return null;
+            }
+            List<Sort.Order> keys = sort.toList();
+            List<Predicate> after = new ArrayList<>(keys.size());
+            List<Predicate> ties = new ArrayList<>(keys.size());
+            for (int i = 0; i < keys.size(); i++) {
+                Expression<Comparable> path = order.get(keys.get(i).getProperty());
+                Comparable value = (Comparable) values.get(i);
+                List<Predicate> alternative = new ArrayList<>(ties);
+                alternative.add(keys.get(i).isAscending() ? builder.greaterThan(path, value) : builder.lessThan(path, value));
+                after.add(builder.and(alternative.toArray(Predicate[]::new)));
+                ties.add(builder.equal(path, value));
+            }
+            Expression<Comparable> first = order.get(keys.get(0).getProperty());
+            Comparable value = (Comparable) values.get(0);
+            return builder.and(keys.get(0).isAscending()
+                            ? builder.greaterThanOrEqualTo(first, value) : builder.lessThanOrEqualTo(first, value),
+                    builder.or(after.toArray(Predicate[]::new)));
+        };
+    }
+
+    private static Date startOf(LocalDate day) {
+        return Date.from(day.atStartOfDay(ZoneOffset.UTC).toInstant());
+    }
+}
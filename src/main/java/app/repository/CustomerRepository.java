@@ -1,9 +1,53 @@
 package app.repository;
 
+import app.dto.CustomerDTO;
+import app.dto.CustomerSummaryDTO;
+import app.dto.VersionAggregateDTO;
 import app.model.Customer;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+
 @Repository
 public interface CustomerRepository extends JpaRepository<Customer, Long> {
+    @EntityGraph(attributePaths = "ordersList")
+    Optional<Customer> findWithOrdersById(Long id);
+
+    @Query("select new app.dto.CustomerDTO(c.id, c.firstName, c.lastName, c.email, c.deliveryAddress) " +
+            "from Customer c where c.id > :id")
+    Slice<CustomerDTO> findDTOsByIdGreaterThan(Long id, Pageable pageable);
+
+    @Query("select new app.dto.CustomerDTO(c.id, c.firstName, c.lastName, c.email, c.deliveryAddress) " +
+            "from Customer c where c.id = :id")
+    Optional<CustomerDTO> findDTOById(Long id);
+
+    @Query("select new app.dto.CustomerSummaryDTO(c.id, c.firstName, c.lastName, c.email) from Customer c where c.id > :id")
+    Slice<CustomerSummaryDTO> findSummariesByIdGreaterThan(Long id, Pageable pageable);
+
+    @Modifying
+    @Query("delete from Customer c where c.id in :ids")
+    int deleteByIdIn(Collection<Long> ids);
+
+    @Modifying
+    @Query("update Customer c set c.deletedAt = :deletedAt where c.id in :ids")
+    int softDeleteByIdIn(Collection<Long> ids, Date deletedAt);
+
+    List<Customer> findByEmailInOrderById(Collection<String> emails);
+
+    /**
+     * Aggregates the customer's orders, with the customer's own version added to the sum. Empty
+     * when there is no customer with this id.
+     */
+    @Query("select new app.dto.VersionAggregateDTO(count(o), c.version + coalesce(sum(o.version), 0), coalesce(max(o.id), 0)) " +
+            "from Customer c left join c.ordersList o where c.id = :id group by c.version")
+    Optional<VersionAggregateDTO> aggregateVersionById(Long id);
 }
@@ -1,6 +1,9 @@
 package app.security.jwt;
 
 import app.service.userService.UserDetailsServiceImpl;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -8,6 +11,7 @@ import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -25,17 +29,34 @@ public class AuthTokenFilter extends OncePerRequestFilter {
     @Autowired
     private UserDetailsServiceImpl userDetailsService;
 
+    // when false every request reloads the user and its roles from the database
+    @Value("${bezkoder.app.jwtStatelessAuth:true}")
+    private boolean statelessAuth;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Timer parseTimer;
+    private Timer verifyTimer;
+    private Timer userLoadTimer;
+
     private static final Logger logger = LoggerFactory.getLogger(AuthTokenFilter.class);
 
+    @Override
+    protected void initFilterBean() {
+        parseTimer = stageTimer("parse");
+        verifyTimer = stageTimer("verify");
+        userLoadTimer = stageTimer("user-load");
+    }
+
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
         try {
-            String jwt = parseJwt(request);
-            if (jwt != null && jwtUtils.validateJwtToken(jwt)) {
-                String username = jwtUtils.getUserNameFromJwtToken(jwt);
-
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+            String jwt = parseTimer.record(() -> parseJwt(request));
+            Claims claims = jwt == null ? null : verifyTimer.record(() -> jwtUtils.getClaimsFromJwtToken(jwt));
+            if (claims != null) {
+                UserDetails userDetails = userLoadTimer.record(() -> loadUser(claims));
                 UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(userDetails, null,
                         userDetails.getAuthorities());
                 authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
@@ -49,6 +70,21 @@ public class AuthTokenFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    private UserDetails loadUser(Claims claims) {
+        UserDetails userDetails = statelessAuth ? jwtUtils.getUserDetailsFromClaims(claims) : null;
+        if (userDetails == null) {
+            userDetails = userDetailsService.loadUserByUsername(claims.getSubject());
+        }
+        return userDetails;
+    }
+
+    private Timer stageTimer(String stage) {
+        return Timer.builder("auth.token.filter")
+                .description("Time spent authenticating a request from its JWT, by stage")
+                .tag("stage", stage)
+                .register(meterRegistry);
+    }
+
     private String parseJwt(HttpServletRequest request) {
         String headerAuth = request.getHeader("Authorization");
 
@@ -3,64 +3,128 @@ package app.security.jwt;
 
 import java.security.Key;
 import java.util.Date;
+import java.util.List;
 
 import app.service.userService.UserDetailsImpl;
+import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.stereotype.Component;
 
 
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureException;
 
 @Component
 public class JwtUtils {
     private static final Logger logger = LoggerFactory.getLogger(JwtUtils.class);
 
+    private static final String ID_CLAIM = "id";
+
+    private static final String EMAIL_CLAIM = "email";
+
+    private static final String ROLES_CLAIM = "roles";
+
     @Value("${bezkoder.app.jwtSecret}")
     private String jwtSecret;
 
     @Value("${bezkoder.app.jwtExpirationMs}")
     private int jwtExpirationMs;
 
+    @Value("${bezkoder.app.jwtCacheSize:10000}")
+    private int jwtCacheSize;
+
+    private Key key;
+
+    private JwtParser jwtParser;
+
+    private VerifiedTokenCache verifiedTokens;
+
+    @PostConstruct
+    void init() {
+        key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret));
+        jwtParser = Jwts.parserBuilder().setSigningKey(key).build();
+        verifiedTokens = new VerifiedTokenCache(jwtCacheSize);
+    }
+
     public String generateJwtToken(Authentication authentication) {
 
         UserDetailsImpl userPrincipal = (UserDetailsImpl) authentication.getPrincipal();
 
+        List<String> roles = userPrincipal.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList();
+
         return Jwts.builder()
                 .setSubject((userPrincipal.getUsername()))
+                .claim(ID_CLAIM, userPrincipal.getId())
+                .claim(EMAIL_CLAIM, userPrincipal.getEmail())
+                .claim(ROLES_CLAIM, roles)
                 .setIssuedAt(new Date())
                 .setExpiration(new Date((new Date()).getTime() + jwtExpirationMs))
-                .signWith(key(), SignatureAlgorithm.HS256)
+                .signWith(key, SignatureAlgorithm.HS256)
                 .compact();
     }
 
-    private Key key() {
-        return Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret));
+    public String getUserNameFromJwtToken(String token) {
+        Claims claims = getClaimsFromJwtToken(token);
+        return claims == null ? null : claims.getSubject();
     }
 
-    public String getUserNameFromJwtToken(String token) {
-        return Jwts.parserBuilder().setSigningKey(key()).build()
-                .parseClaimsJws(token).getBody().getSubject();
+    /**
+     * Builds the principal from the claims written by {@link #generateJwtToken}, or returns null
+     * for tokens issued without them.
+     */
+    public UserDetailsImpl getUserDetailsFromClaims(Claims claims) {
+        Long id = claims.get(ID_CLAIM, Long.class);
+        List<?> roles = claims.get(ROLES_CLAIM, List.class);
+        if (id == null || roles == null) {
+            return null;
+        }
+        List<GrantedAuthority> authorities = roles.stream()
+                .map(role -> (GrantedAuthority) new SimpleGrantedAuthority(role.toString()))
+                .toList();
+        return new UserDetailsImpl(id, claims.getSubject(), claims.get(EMAIL_CLAIM, String.class), null, authorities);
     }
 
     public boolean validateJwtToken(String authToken) {
+        return getClaimsFromJwtToken(authToken) != null;
+    }
+
+    /**
+     * Verifies the token and returns its claims, or null when the token is not valid.
+     * Tokens verified before are answered from the cache until they expire.
+     */
+    public Claims getClaimsFromJwtToken(String authToken) {
+        if (authToken == null || authToken.isEmpty()) {
+            logger.error("JWT claims string is empty");
+            return null;
+        }
+        String cacheKey = VerifiedTokenCache.key(authToken);
+        Claims claims = verifiedTokens.get(cacheKey);
+        if (claims != null) {
+            return claims;
+        }
         try {
-            Jwts.parserBuilder().setSigningKey(key()).build().parse(authToken);
-            return true;
+            claims = jwtParser.parseClaimsJws(authToken).getBody();
+            verifiedTokens.put(cacheKey, claims);
+            return claims;
         } catch (MalformedJwtException e) {
             logger.error("Invalid JWT token: {}", e.getMessage());
         } catch (ExpiredJwtException e) {
             logger.error("JWT token is expired: {}", e.getMessage());
         } catch (UnsupportedJwtException e) {
             logger.error("JWT token is unsupported: {}", e.getMessage());
+        } catch (SignatureException e) {
+            logger.error("Invalid JWT signature: {}", e.getMessage());
         } catch (IllegalArgumentException e) {
             logger.error("JWT claims string is empty: {}", e.getMessage());
         }
 
-        return false;
+        return null;
     }
-}
\ No newline at end of file
+}
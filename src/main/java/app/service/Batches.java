@@ -0,0 +1,29 @@
+package app.service;
+
+import jakarta.persistence.EntityManager;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+
+final class Batches {
+    // matches spring.jpa.properties.hibernate.jdbc.batch_size
+    static final int SIZE = 50;
+
+    private Batches() {
+    }
+
+    /**
+     * Saves the entities one JDBC batch at a time, clearing the persistence context after each
+     * batch so large imports do not keep every row managed until the end of the transaction.
+     */
+    static <T> List<T> saveAll(JpaRepository<T, Long> repository, EntityManager entityManager, List<T> entities) {
+        List<T> saved = new ArrayList<>(entities.size());
+        for (int from = 0; from < entities.size(); from += SIZE) {
+            saved.addAll(repository.saveAll(entities.subList(from, Math.min(from + SIZE, entities.size()))));
+            entityManager.flush();
+            entityManager.clear();
+        }
+        return saved;
+    }
+}
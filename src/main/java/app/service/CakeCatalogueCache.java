@@ -0,0 +1,141 @@
+package app.service;
+
+import app.dto.CacheStatsDTO;
+import app.dto.CakeDTO;
+import app.dto.CursorPageDTO;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Serialized JSON of catalogue pages and single cakes, so a hit needs neither the database nor
+ * Jackson. Every committed change to the cakes swaps in an empty cache; loads that started
+ * before the swap only fill the discarded one, so stale entries never survive an invalidation.
+ * The versions behind the ETags of the catalogue are cached the same way.
+ */
+@Component
+public class CakeCatalogueCache {
+
+    // bounds the number of distinct pages kept when clients page with arbitrary cursors
+    private static final int MAX_ENTRIES = 1024;
+
+    private final CakeService cakeService;
+    private final ObjectMapper objectMapper;
+
+    private static final Object CATALOGUE = new Object();
+
+    private volatile Generation generation = new Generation();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public CakeCatalogueCache(CakeService cakeService, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.cakeService = cakeService;
+        this.objectMapper = objectMapper;
+        // same names and tags as the caches Micrometer binds itself
+        FunctionCounter.builder("cache.gets", hits, LongAdder::sum)
+                .tags("cache", "cakeCatalogue", "result", "hit")
+                .register(meterRegistry);
+        FunctionCounter.builder("cache.gets", misses, LongAdder::sum)
+                .tags("cache", "cakeCatalogue", "result", "miss")
+                .register(meterRegistry);
+        Gauge.builder("cache.size", this, cache -> cache.generation.json().size())
+                .tag("cache", "cakeCatalogue")
+                .register(meterRegistry);
+    }
+
+    public byte[] getPage(Long after, int limit) {
+        long from = Keyset.after(after);
+        int size = Keyset.limit(limit).getPageSize();
+        return get(new PageKey(from, size), () -> {
+            Slice<CakeDTO> page = cakeService.getDTOPage(from, size);
+            return CursorPageDTO.of(page.getContent(), page.hasNext(), CakeDTO::getId);
+        });
+    }
+
+    /**
+     * Returns the serialized cake, or null when there is no cake with this id.
+     */
+    public byte[] getCake(Long id) {
+        return get(id, () -> cakeService.findDTOById(id).orElse(null));
+    }
+
+    /**
+     * Returns a tag that changes whenever a cake is created, updated or deleted.
+     */
+    public String getCatalogueVersion() {
+        return version(CATALOGUE, () -> cakeService.getCatalogueVersion().tag());
+    }
+
+    /**
+     * Returns the version of the cake, or null when there is no cake with this id.
+     */
+    public String getCakeVersion(Long id) {
+        return version(id, () -> cakeService.findVersionById(id).map(String::valueOf).orElse(null));
+    }
+
+    public CacheStatsDTO getStats() {
+        return new CacheStatsDTO(hits.sum(), misses.sum(), generation.json().size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogueChanged(CakeCatalogueChangedEvent event) {
+        generation = new Generation();
+    }
+
+    private String version(Object key, Supplier<String> loader) {
+        Map<Object, String> current = generation.versions();
+        String version = current.get(key);
+        if (version != null) {
+            return version;
+        }
+        version = loader.get();
+        if (version != null && current.size() < MAX_ENTRIES) {
+            current.putIfAbsent(key, version);
+        }
+        return version;
+    }
+
+    private byte[] get(Object key, Supplier<Object> loader) {
+        Map<Object, byte[]> current = generation.json();
+        byte[] json = current.get(key);
+        if (json != null) {
+            hits.increment();
+            return json;
+        }
+        misses.increment();
+        Object value = loader.get();
+        if (value == null) {
+            return null;
+        }
+        try {
+            json = objectMapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize " + value, e);
+        }
+        if (current.size() < MAX_ENTRIES) {
+            current.putIfAbsent(key, json);
+        }
+        return json;
+    }
+
+    private record PageKey(long after, int limit) {
+    }
+
+    private record Generation(Map<Object, byte[]> json, Map<Object, String> versions) {
+
+        Generation() {
+            this(new ConcurrentHashMap<>(), new ConcurrentHashMap<>());
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package app.service;
+
+import app.dto.CakeDTO;
+import app.model.Cake;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Published by {@link CakeServiceImpl} whenever cakes are created, updated or deleted, with the
+ * cakes as saved and the ids of the deleted ones. Listeners bound to the transaction only see it
+ * once the change is committed.
+ */
+public record CakeCatalogueChangedEvent(List<CakeDTO> saved, List<Long> deleted) {
+
+    static CakeCatalogueChangedEvent saved(Collection<Cake> cakes) {
+        return new CakeCatalogueChangedEvent(
+                cakes.stream().map(cake -> new CakeDTO(cake.getId(), cake.getName(), cake.getDescription())).toList(),
+                List.of());
+    }
+
+    static CakeCatalogueChangedEvent deleted(Long id) {
+        return new CakeCatalogueChangedEvent(List.of(), List.of(id));
+    }
+}
@@ -1,6 +1,9 @@
 package app.service;
 
+import app.dto.CakeDTO;
+import app.dto.VersionAggregateDTO;
 import app.model.Cake;
+import org.springframework.data.domain.Slice;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.util.List;
@@ -9,6 +12,8 @@ import java.util.Optional;
 public interface CakeService {
     Cake addCake(Cake cake);
 
+    List<Cake> addCakes(List<Cake> cakes);
+
     Cake updateCake(Long id, Cake cake);
 
     Optional<Cake> findById(Long id);
@@ -16,4 +21,18 @@ public interface CakeService {
     void deleteById(Long id);
 
     List<Cake> getAll();
+
+    Slice<CakeDTO> getDTOPage(Long after, int limit);
+
+    Optional<CakeDTO> findDTOById(Long id);
+
+    Optional<Long> findVersionById(Long id);
+
+    VersionAggregateDTO getCatalogueVersion();
+
+    /**
+     * Returns at most limit cakes whose name or description contains every word of the query,
+     * the last word as a prefix, best matches first.
+     */
+    List<CakeDTO> search(String query, int limit);
 }
@@ -1,7 +1,14 @@
 package app.service;
 
+import app.config.CakeFullTextIndex;
+import app.dto.CakeDTO;
+import app.dto.VersionAggregateDTO;
 import app.model.Cake;
+import jakarta.persistence.EntityManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 import app.repository.CakeRepository;
 
@@ -12,15 +19,37 @@ import java.util.Optional;
 public class CakeServiceImpl implements CakeService{
 
     private final CakeRepository cakeRepository;
+    private final EntityManager entityManager;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CakeTextIndex cakeTextIndex;
+    private final CakeFullTextIndex cakeFullTextIndex;
 
-    public CakeServiceImpl(CakeRepository cakeRepository) {
+    public CakeServiceImpl(CakeRepository cakeRepository, EntityManager entityManager,
+                           ApplicationEventPublisher eventPublisher, CakeTextIndex cakeTextIndex,
+                           CakeFullTextIndex cakeFullTextIndex) {
         this.cakeRepository = cakeRepository;
+        this.entityManager = entityManager;
+        this.eventPublisher = eventPublisher;
+        this.cakeTextIndex = cakeTextIndex;
+        this.cakeFullTextIndex = cakeFullTextIndex;
     }
 
 
     @Override
     public Cake addCake(Cake cake) {
-        return cakeRepository.save(cake);
+        cake.setId(null);
+        Cake saved = cakeRepository.save(cake);
+        eventPublisher.publishEvent(CakeCatalogueChangedEvent.saved(List.of(saved)));
+        return saved;
+    }
+
+    @Override
+    @Transactional
+    public List<Cake> addCakes(List<Cake> cakes) {
+        cakes.forEach(cake -> cake.setId(null));
+        List<Cake> saved = Batches.saveAll(cakeRepository, entityManager, cakes);
+        eventPublisher.publishEvent(CakeCatalogueChangedEvent.saved(saved));
+        return saved;
     }
 
     @Override
@@ -30,11 +59,13 @@ public class CakeServiceImpl implements CakeService{
             Cake c = optionalCake.get();
             c.setName(cake.getName());
             c.setDescription(cake.getDescription());
-            return cakeRepository.save(c);
+            cake = c;
+        } else {
+            cake.setId(null);
         }
-        return cakeRepository.save(cake);
-
-
+        Cake saved = cakeRepository.save(cake);
+        eventPublisher.publishEvent(CakeCatalogueChangedEvent.saved(List.of(saved)));
+        return saved;
     }
 
     @Override
@@ -45,10 +76,53 @@ public class CakeServiceImpl implements CakeService{
     @Override
     public void deleteById(Long id) {
         cakeRepository.deleteById(id);
+        eventPublisher.publishEvent(CakeCatalogueChangedEvent.deleted(id));
     }
 
     @Override
     public List<Cake> getAll() {
         return cakeRepository.findAll();
     }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<CakeDTO> getDTOPage(Long after, int limit) {
+        return cakeRepository.findDTOsByIdGreaterThan(Keyset.after(after), Keyset.limit(limit));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<CakeDTO> findDTOById(Long id) {
+        return cakeRepository.findDTOById(id);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<Long> findVersionById(Long id) {
+        return cakeRepository.findVersionById(id);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public VersionAggregateDTO getCatalogueVersion() {
+        return cakeRepository.aggregateVersion();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<CakeDTO> search(String query, int limit) {
+        List<String> terms = CakeTextIndex.terms(query);
+        int size = Keyset.limit(limit).getPageSize();
+        if (terms.isEmpty()) {
+            return List.of();
+        }
+        if (!cakeFullTextIndex.isAvailable()) {
+            return cakeTextIndex.search(terms, size);
+        }
+        // terms are only letters and digits, the last one is still being typed
+        String tsquery = String.join(" & ", terms) + ":*";
+        return cakeRepository.searchFullText(tsquery, size).stream()
+                .map(cake -> new CakeDTO(cake.getId(), cake.getName(), cake.getDescription()))
+                .toList();
+    }
 }
@@ -0,0 +1,228 @@
+package app.service;
+
+import app.dto.CakeDTO;
+import app.repository.CakeRepository;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Inverted index of the words in the names and descriptions of the cakes, used to search the
+ * catalogue when the database has no full-text index. The first search reads the whole catalogue
+ * page by page; after that, a {@link CakeCatalogueChangedEvent} re-indexes only the cakes it names,
+ * once its transaction has committed. A cake matches when it
+ * contains every word of the query, the last one as a prefix since it may still be typed; words
+ * in the name rank higher than words in the description.
+ */
+@Component
+public class CakeTextIndex {
+
+    private final CakeRepository cakeRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // ids of the cakes by word, sorted so a prefix is a range of keys
+    private final NavigableMap<String, Set<Long>> postings = new TreeMap<>();
+
+    private final Map<Long, Document> documents = new HashMap<>();
+
+    private volatile boolean loaded;
+
+    public CakeTextIndex(CakeRepository cakeRepository) {
+        this.cakeRepository = cakeRepository;
+    }
+
+    /**
+     * Splits the text into lower-case words of letters and digits.
+     */
+    public static List<String> terms(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null) {
+            return terms;
+        }
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean inWord = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (inWord && start < 0) {
+                start = i;
+            } else if (!inWord && start >= 0) {
+                terms.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+                start = -1;
+            }
+        }
+        return terms;
+    }
+
+    /**
+     * Returns at most limit cakes containing all the terms, the best matches first.
+     */
+    public List<CakeDTO> search(List<String> terms, int limit) {
+        if (terms.isEmpty()) {
+            return List.of();
+        }
+        load();
+        lock.readLock().lock();
+        try {
+            List<Match> matches = new ArrayList<>();
+            for (Document document : matches(terms)) {
+                matches.add(new Match(document.cake(), document.score(terms)));
+            }
+            matches.sort(Comparator.comparingInt(Match::score).reversed()
+                    .thenComparing(match -> match.cake().getId()));
+            return matches.subList(0, Math.min(limit, matches.size())).stream().map(Match::cake).toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogueChanged(CakeCatalogueChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            // no search yet, so nothing to patch: the first one reads the catalogue including these cakes
+            if (!loaded) {
+                return;
+            }
+            event.deleted().forEach(this::remove);
+            event.saved().forEach(this::put);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private List<Document> matches(List<String> terms) {
+        String prefix = terms.get(terms.size() - 1);
+        Set<Long> ids = null;
+        // the exact words narrow the candidates down before the prefix is checked on each of them
+        for (String term : terms.subList(0, terms.size() - 1)) {
+            Set<Long> posting = postings.getOrDefault(term, Set.of());
+            if (ids == null) {
+                ids = new HashSet<>(posting);
+            } else {
+                ids.retainAll(posting);
+            }
+            if (ids.isEmpty()) {
+                return new ArrayList<>();
+            }
+        }
+        List<Document> matches = new ArrayList<>();
+        if (ids == null) {
+            ids = new HashSet<>();
+            for (Set<Long> posting : postings.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values()) {
+                ids.addAll(posting);
+            }
+            ids.forEach(id -> matches.add(documents.get(id)));
+        } else {
+            for (Long id : ids) {
+                Document document = documents.get(id);
+                if (document.contains(prefix)) {
+                    matches.add(document);
+                }
+            }
+        }
+        return matches;
+    }
+
+    private void load() {
+        if (loaded) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (loaded) {
+                return;
+            }
+            long after = 0;
+            Slice<CakeDTO> page;
+            do {
+                page = cakeRepository.findDTOsByIdGreaterThan(after, Keyset.limit(Keyset.MAX_LIMIT));
+                for (CakeDTO cake : page) {
+                    put(cake);
+                    after = cake.getId();
+                }
+            } while (page.hasNext());
+            loaded = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void put(CakeDTO cake) {
+        remove(cake.getId());
+        Document document = new Document(cake, new TreeSet<>(terms(cake.getName())),
+                new TreeSet<>(terms(cake.getDescription())));
+        documents.put(cake.getId(), document);
+        for (String term : document.name()) {
+            postings.computeIfAbsent(term, t -> new HashSet<>()).add(cake.getId());
+        }
+        for (String term : document.description()) {
+            postings.computeIfAbsent(term, t -> new HashSet<>()).add(cake.getId());
+        }
+    }
+
+    private void remove(Long id) {
+        Document document = documents.remove(id);
+        if (document == null) {
+            return;
+        }
+        for (String term : document.name()) {
+            unpost(term, id);
+        }
+        for (String term : document.description()) {
+            unpost(term, id);
+        }
+    }
+
+    private void unpost(String term, Long id) {
+        Set<Long> posting = postings.get(term);
+        if (posting != null && posting.remove(id) && posting.isEmpty()) {
+            postings.remove(term);
+        }
+    }
+
+    private record Match(CakeDTO cake, int score) {
+    }
+
+    private record Document(CakeDTO cake, NavigableSet<String> name, NavigableSet<String> description) {
+
+        boolean contains(String prefix) {
+            return startsWith(name, prefix) || startsWith(description, prefix);
+        }
+
+        // two points per word found in the name, one per word found in the description
+        int score(List<String> terms) {
+            int score = 0;
+            for (int i = 0; i < terms.size(); i++) {
+                boolean prefix = i == terms.size() - 1;
+                String term = terms.get(i);
+                if (prefix ? startsWith(name, term) : name.contains(term)) {
+                    score += 2;
+                }
+                if (prefix ? startsWith(description, term) : description.contains(term)) {
+                    score += 1;
+                }
+            }
+            return score;
+        }
+
+        private static boolean startsWith(NavigableSet<String> words, String prefix) {
+            String word = words.ceiling(prefix);
+            return word != null && word.startsWith(prefix);
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package app.service;
+
+import app.dto.CustomerSummaryDTO;
+import app.model.Customer;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Published by {@link CustomerServiceImpl} and {@link OrderImportServiceImpl} whenever customers
+ * are created, updated or deleted, with the customers as saved and the ids of the deleted ones.
+ * Listeners bound to the transaction only see it once the change is committed.
+ */
+public record CustomerChangedEvent(List<CustomerSummaryDTO> saved, List<Long> deleted) {
+
+    static CustomerChangedEvent saved(Collection<Customer> customers) {
+        return new CustomerChangedEvent(customers.stream()
+                .map(customer -> new CustomerSummaryDTO(customer.getId(), customer.getFirstName(),
+                        customer.getLastName(), customer.getEmail()))
+                .toList(), List.of());
+    }
+
+    static CustomerChangedEvent deleted(Collection<Long> ids) {
+        return new CustomerChangedEvent(List.of(), List.copyOf(ids));
+    }
+}
@@ -1,19 +1,89 @@
 package app.service;
 
+import app.dto.CustomerOrderDTO;
+import app.enums.OrderStatus;
 import app.model.CustomerOrder;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface CustomerOrderService {
     CustomerOrder addCustomerOrder(CustomerOrder customerOrder);
 
+    List<CustomerOrder> addCustomerOrders(List<CustomerOrder> customerOrders);
+
+    /**
+     * Updates the order, or creates it when there is no order with this id. Throws
+     * InvalidStatusTransitionException when the order cannot reach the new status.
+     */
     CustomerOrder updateCustomerOrder(Long id, CustomerOrder customerOrder);
 
+    /**
+     * Adds and removes lines of the order without rewriting the others, and returns the order,
+     * or nothing when there is no order with this id. Throws IllegalArgumentException for
+     * unknown cakes and for cakes removed more times than they are ordered.
+     */
+    Optional<CustomerOrderDTO> updateCakesOrdered(Long id, List<Long> add, List<Long> remove);
+
+    /**
+     * Sets the status of the order with a single update, and returns it, or nothing when there
+     * is no order with this id. Throws InvalidStatusTransitionException when the order cannot
+     * reach the new status.
+     */
+    Optional<OrderStatus> updateStatus(Long id, OrderStatus status);
+
     Optional<CustomerOrder> findById(Long id);
 
     void deleteById(Long id);
 
+    /**
+     * Deletes the orders with these ids, at most CustomerOrderRepository.IN_CHUNK_SIZE of them,
+     * and returns how many there were. Orders are only marked as deleted when soft deletes are on.
+     */
+    int deleteByIds(Collection<Long> ids);
+
+    /**
+     * Deletes the orders delivered before the UTC day, only those in the status when it is not
+     * null, and returns how many there were.
+     */
+    int deleteByStatusDeliveredBefore(OrderStatus status, LocalDate deliveredBefore);
+
+    /**
+     * Deletes all the orders of these customers and returns how many there were.
+     */
+    int deleteByCustomerIds(Collection<Long> customerIds);
+
     List<CustomerOrder> getAll();
+
+    Slice<CustomerOrderDTO> getDTOPage(Long after, int limit);
+
+    Optional<CustomerOrderDTO> findDTOById(Long id);
+
+    /**
+     * Returns one page of the orders matching every filter that is not null, with their cakes,
+     * starting after the order of the cursor when there is one. The sort of the returned slice,
+     * ended by the id, is the one to make the next cursor with, see OrderSearchCursor. Orders can
+     * be sorted by id, name, deliveryDate and status; other properties, a page number and a cursor
+     * that does not fit the sort throw IllegalArgumentException.
+     */
+    Slice<CustomerOrderDTO> search(OrderStatus status, LocalDate deliveredFrom, LocalDate deliveredUntil, Long customerId,
+                                   String after, Pageable pageable);
+
+    /**
+     * Returns one page of the orders that are still open, by delivery date, with their cakes.
+     */
+    Slice<CustomerOrderDTO> getOpenDTOPage(LocalDate deliveredUntil, int page, int size);
+
+    /**
+     * Returns a tag that changes whenever the order or one of the cakes it lists changes.
+     */
+    Optional<String> getVersionTag(Long id);
+
+    void exportAll(Consumer<CustomerOrder> consumer);
 }
@@ -1,40 +1,234 @@
 package app.service;
 
+import app.dto.CustomerOrderDTO;
+import app.dto.DeliveryDayCakeCountDTO;
+import app.enums.OrderStatus;
+import app.model.Cake;
+import app.model.Customer;
 import app.model.CustomerOrder;
+import app.repository.CakeRepository;
 import app.repository.CustomerOrderRepository;
+import app.repository.CustomerOrderSpecifications;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class CustomerOrderServiceImpl implements CustomerOrderService{
 
+    // detach exported orders every this many rows so the persistence context stays small
+    private static final int EXPORT_CLEAR_INTERVAL = 500;
+
+    // sortable properties of the search by their name in the API
+    private static final Map<String, String> SEARCH_SORT_PROPERTIES =
+            Map.of("id", "id", "name", "name", "deliveryDate", "deliveryDate", "status", "Status");
+
     private final CustomerOrderRepository customerOrderRepository;
+    private final EntityManager entityManager;
+    private final CakeCatalogueCache cakeCatalogueCache;
+    private final CakeRepository cakeRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final boolean softDelete;
 
-    public CustomerOrderServiceImpl(CustomerOrderRepository customerOrderRepository) {
+    public CustomerOrderServiceImpl(CustomerOrderRepository customerOrderRepository, EntityManager entityManager,
+                                    CakeCatalogueCache cakeCatalogueCache, CakeRepository cakeRepository,
+                                    ApplicationEventPublisher eventPublisher,
+                                    @Value("${bezkoder.app.softDelete:false}") boolean softDelete) {
         this.customerOrderRepository = customerOrderRepository;
+        this.entityManager = entityManager;
+        this.cakeCatalogueCache = cakeCatalogueCache;
+        this.cakeRepository = cakeRepository;
+        this.eventPublisher = eventPublisher;
+        this.softDelete = softDelete;
     }
 
 
     @Override
+    @Transactional
     public CustomerOrder addCustomerOrder(CustomerOrder customerOrder) {
-        return customerOrderRepository.save(customerOrder);
+        customerOrder.setId(null);
+        attachReferences(List.of(customerOrder));
+        CustomerOrder saved = customerOrderRepository.save(customerOrder);
+        eventPublisher.publishEvent(new ProductionPlanChangedEvent(ProductionPlanChangedEvent.changes(List.of(saved), 1)));
+        return saved;
+    }
+
+    @Override
+    @Transactional
+    public List<CustomerOrder> addCustomerOrders(List<CustomerOrder> customerOrders) {
+        customerOrders.forEach(customerOrder -> customerOrder.setId(null));
+        attachReferences(customerOrders);
+        List<CustomerOrder> saved = Batches.saveAll(customerOrderRepository, entityManager, customerOrders);
+        eventPublisher.publishEvent(new ProductionPlanChangedEvent(ProductionPlanChangedEvent.changes(saved, 1)));
+        return saved;
     }
 
     @Override
+    @Transactional
     public CustomerOrder updateCustomerOrder(Long id, CustomerOrder customerOrder) {
+        attachReferences(List.of(customerOrder));
         Optional<CustomerOrder> optionalCustomerOrder = customerOrderRepository.findById(id);
         if (optionalCustomerOrder.isPresent()) {
             CustomerOrder c = optionalCustomerOrder.get();
+            if (customerOrder.getStatus() != null && !c.getStatus().canBecome(customerOrder.getStatus())) {
+                throw new InvalidStatusTransitionException(c.getStatus(), customerOrder.getStatus());
+            }
+            List<ProductionPlanChangedEvent.Change> changes = new ArrayList<>(ProductionPlanChangedEvent.changes(List.of(c), -1));
             c.setName(customerOrder.getName());
-            c.setStatus(customerOrder.getStatus());
+            // a body without a status keeps the current one
+            if (customerOrder.getStatus() != null) {
+                c.setStatus(customerOrder.getStatus());
+            }
             c.setDeliveryDate(customerOrder.getDeliveryDate());
-            c.setCakesOrdered(customerOrder.getCakesOrdered());
-            return customerOrderRepository.save(c);
+            // Hibernate rewrites all the lines of a changed many-to-many bag, so the same cakes are left alone
+            if (!sameCakes(c.getCakesOrdered(), customerOrder.getCakesOrdered())) {
+                c.setCakesOrdered(customerOrder.getCakesOrdered());
+            }
+            CustomerOrder saved = customerOrderRepository.save(c);
+            changes.addAll(ProductionPlanChangedEvent.changes(List.of(saved), 1));
+            eventPublisher.publishEvent(new ProductionPlanChangedEvent(changes));
+            return saved;
+        }
+        customerOrder.setId(null);
+        CustomerOrder saved = customerOrderRepository.save(customerOrder);
+        eventPublisher.publishEvent(new ProductionPlanChangedEvent(ProductionPlanChangedEvent.changes(List.of(saved), 1)));
+        return saved;
+    }
+
+    @Override
+    @Transactional
+    public Optional<CustomerOrderDTO> updateCakesOrdered(Long id, List<Long> add, List<Long> remove) {
+        Set<Long> known = new HashSet<>();
+        cakeRepository.findAllById(new HashSet<>(add)).forEach(cake -> known.add(cake.getId()));
+        List<Long> unknown = add.stream().filter(cakeId -> !known.contains(cakeId)).distinct().toList();
+        if (!unknown.isEmpty()) {
+            throw new IllegalArgumentException("Unknown cakes " + unknown);
+        }
+
+        // locked before the lines are counted, a concurrent patch would otherwise reinsert the lines it counted
+        if (!customerOrderRepository.lockOrder(id)) {
+            return Optional.empty();
+        }
+        // empty when the order is cancelled or delivered, its lines are then off the production plan
+        Optional<Date> deliveryDate = customerOrderRepository.findDeliveryDateByIdAndStatusIn(id, OrderStatus.open());
+
+        // the lines of a removed cake are deleted together, those that stay are inserted again
+        Map<Long, Integer> removed = new HashMap<>();
+        remove.forEach(cakeId -> removed.merge(cakeId, 1, Integer::sum));
+        Map<Long, Integer> lines = customerOrderRepository.countLines(id, removed.keySet());
+        List<Long> inserted = new ArrayList<>(add);
+        for (Map.Entry<Long, Integer> cake : removed.entrySet()) {
+            int left = lines.getOrDefault(cake.getKey(), 0) - cake.getValue();
+            if (left < 0) {
+                throw new IllegalArgumentException("Cake " + cake.getKey() + " is ordered "
+                        + lines.getOrDefault(cake.getKey(), 0) + " times, it cannot be removed " + cake.getValue() + " times");
+            }
+            inserted.addAll(Collections.nCopies(left, cake.getKey()));
+        }
+        customerOrderRepository.updateLines(id, removed.keySet(), inserted);
+
+        if (deliveryDate.isPresent()) {
+            LocalDate day = ProductionPlanChangedEvent.deliveryDay(deliveryDate.get());
+            List<ProductionPlanChangedEvent.Change> changes = new ArrayList<>();
+            remove.forEach(cakeId -> changes.add(new ProductionPlanChangedEvent.Change(day, cakeId, -1)));
+            add.forEach(cakeId -> changes.add(new ProductionPlanChangedEvent.Change(day, cakeId, 1)));
+            eventPublisher.publishEvent(new ProductionPlanChangedEvent(changes));
+        }
+        return findDTOById(id);
+    }
+
+    @Override
+    @Transactional
+    public Optional<OrderStatus> updateStatus(Long id, OrderStatus status) {
+        if (!status.isOpen()) {
+            // the order leaves the open statuses only once, its cakes then come off the production plan
+            Set<OrderStatus> open = EnumSet.copyOf(status.reachableFrom());
+            open.retainAll(OrderStatus.open());
+            if (customerOrderRepository.updateStatus(id, status, open) == 1) {
+                removeFromPlan(CustomerOrderSpecifications.hasIdIn(List.of(id)));
+                return Optional.of(status);
+            }
+        }
+        if (customerOrderRepository.updateStatus(id, status, status.reachableFrom()) == 1) {
+            return Optional.of(status);
+        }
+        // only read when nothing was updated, to tell a missing order from a forbidden transition
+        Optional<OrderStatus> current = customerOrderRepository.findStatusById(id);
+        if (current.isPresent()) {
+            throw new InvalidStatusTransitionException(current.get(), status);
+        }
+        return Optional.empty();
+    }
+
+    private static boolean sameCakes(List<Cake> current, List<Cake> next) {
+        return cakeIds(current).equals(cakeIds(next));
+    }
+
+    private static List<Long> cakeIds(List<Cake> cakes) {
+        if (cakes == null) {
+            return List.of();
+        }
+        return cakes.stream().map(Cake::getId).sorted(Comparator.nullsFirst(Comparator.naturalOrder())).toList();
+    }
+
+    /**
+     * Replaces the customer and cakes that only carry an id, as mapped from a DTO, with entities
+     * of the persistence context. Saved as they are, they count as detached entities without a
+     * version and Hibernate refuses them. The cakes of all orders are loaded with one query, as
+     * the response shows them and proxies would be initialized one by one.
+     */
+    private void attachReferences(List<CustomerOrder> customerOrders) {
+        List<Long> cakeIds = customerOrders.stream()
+                .filter(customerOrder -> customerOrder.getCakesOrdered() != null)
+                .flatMap(customerOrder -> customerOrder.getCakesOrdered().stream())
+                .filter(cake -> cake.getId() != null && !entityManager.contains(cake))
+                .map(Cake::getId)
+                .distinct()
+                .toList();
+        Map<Long, Cake> cakes = new HashMap<>();
+        if (!cakeIds.isEmpty()) {
+            cakeRepository.findAllById(cakeIds).forEach(cake -> cakes.put(cake.getId(), cake));
+        }
+        for (CustomerOrder customerOrder : customerOrders) {
+            Customer customer = customerOrder.getCustomer();
+            if (customer != null && customer.getId() != null && !entityManager.contains(customer)) {
+                customerOrder.setCustomer(entityManager.getReference(Customer.class, customer.getId()));
+            }
+            if (customerOrder.getCakesOrdered() != null) {
+                // unknown ids stay references and fail on the foreign key, as before
+                customerOrder.setCakesOrdered(customerOrder.getCakesOrdered().stream()
+                        .map(cake -> cake.getId() == null || entityManager.contains(cake) ? cake
+                                : cakes.computeIfAbsent(cake.getId(), id -> entityManager.getReference(Cake.class, id)))
+                        .collect(Collectors.toList()));
+            }
         }
-        return customerOrderRepository.save(customerOrder);
     }
 
     @Override
@@ -43,13 +237,158 @@ public class CustomerOrderServiceImpl implements CustomerOrderService{
     }
 
     @Override
+    @Transactional
     public void deleteById(Long id) {
-        customerOrderRepository.deleteById(id);
+        deleteByIds(List.of(id));
+    }
+
+    @Override
+    @Transactional
+    public int deleteByIds(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        if (ids.size() > CustomerOrderRepository.IN_CHUNK_SIZE) {
+            throw new IllegalArgumentException("At most " + CustomerOrderRepository.IN_CHUNK_SIZE + " orders can be deleted at once");
+        }
+        return delete(CustomerOrderSpecifications.hasIdIn(ids));
+    }
+
+    @Override
+    @Transactional
+    public int deleteByStatusDeliveredBefore(OrderStatus status, LocalDate deliveredBefore) {
+        return delete(Specification.where(CustomerOrderSpecifications.hasStatus(status))
+                .and(CustomerOrderSpecifications.deliveredBefore(deliveredBefore)));
+    }
+
+    @Override
+    @Transactional
+    public int deleteByCustomerIds(Collection<Long> customerIds) {
+        if (customerIds.isEmpty()) {
+            return 0;
+        }
+        return delete(CustomerOrderSpecifications.ofCustomers(customerIds));
+    }
+
+    /**
+     * Deletes, or marks as deleted, the matching orders with set-based statements, whatever their
+     * number. The cakes of the open ones are taken off the production plan first.
+     */
+    private int delete(Specification<CustomerOrder> orders) {
+        removeFromPlan(orders.and(CustomerOrderSpecifications.hasStatusIn(OrderStatus.open())));
+        return softDelete ? customerOrderRepository.softDeleteMatching(orders, new Date())
+                : customerOrderRepository.deleteMatching(orders);
+    }
+
+    /**
+     * Takes the cakes of the matching orders off the production plan with one aggregate query,
+     * counting only the coming days.
+     */
+    private void removeFromPlan(Specification<CustomerOrder> orders) {
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        List<ProductionPlanChangedEvent.Change> changes = new ArrayList<>();
+        for (DeliveryDayCakeCountDTO count : customerOrderRepository.countCakesByDeliveryDate(
+                orders.and(CustomerOrderSpecifications.deliveredFrom(today)))) {
+            changes.add(new ProductionPlanChangedEvent.Change(ProductionPlanChangedEvent.deliveryDay(count.deliveryDate()),
+                    count.cakeId(), -count.quantity().intValue()));
+        }
+        if (!changes.isEmpty()) {
+            eventPublisher.publishEvent(new ProductionPlanChangedEvent(changes));
+        }
     }
 
     @Override
     public List<CustomerOrder> getAll() {
         return customerOrderRepository.findAll();
     }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<CustomerOrderDTO> getDTOPage(Long after, int limit) {
+        Slice<CustomerOrderDTO> page = customerOrderRepository.findDTOsByIdGreaterThan(Keyset.after(after), Keyset.limit(limit));
+        customerOrderRepository.fillCakesOrdered(page.getContent());
+        return page;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<CustomerOrderDTO> search(OrderStatus status, LocalDate deliveredFrom, LocalDate deliveredUntil, Long customerId,
+                                          String after, Pageable pageable) {
+        if (pageable.getPageNumber() > 0) {
+            throw new IllegalArgumentException("Pages are read with the nextCursor of the previous one as after, not by number");
+        }
+        Pageable searchPage = searchPage(pageable);
+        List<Object> last = after == null ? null : OrderSearchCursor.parse(after, searchPage.getSort());
+        Specification<CustomerOrder> specification = Specification.where(CustomerOrderSpecifications.hasStatus(status))
+                .and(CustomerOrderSpecifications.deliveredFrom(deliveredFrom))
+                .and(CustomerOrderSpecifications.deliveredUntil(deliveredUntil))
+                .and(CustomerOrderSpecifications.ofCustomer(customerId))
+                .and(CustomerOrderSpecifications.sortedAfter(searchPage.getSort(), last));
+        Slice<CustomerOrderDTO> page = customerOrderRepository.findDTOs(specification, searchPage);
+        customerOrderRepository.fillCakesOrdered(page.getContent());
+        return page;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<CustomerOrderDTO> getOpenDTOPage(LocalDate deliveredUntil, int page, int size) {
+        // the day after the last one, or no limit
+        LocalDate before = deliveredUntil == null ? LocalDate.of(9999, 1, 1) : deliveredUntil.plusDays(1);
+        Pageable pageable = PageRequest.of(Math.max(0, page), Math.max(1, Math.min(size, Keyset.MAX_LIMIT)),
+                Sort.by("deliveryDate", "id"));
+        Slice<CustomerOrderDTO> open = customerOrderRepository.findOpenDTOs(
+                Date.from(before.atStartOfDay(ZoneOffset.UTC).toInstant()), pageable);
+        customerOrderRepository.fillCakesOrdered(open.getContent());
+        return open;
+    }
+
+    private static Pageable searchPage(Pageable pageable) {
+        List<Sort.Order> orders = new ArrayList<>();
+        for (Sort.Order order : pageable.getSort()) {
+            String property = SEARCH_SORT_PROPERTIES.get(order.getProperty());
+            if (property == null) {
+                throw new IllegalArgumentException("Orders cannot be sorted by " + order.getProperty());
+            }
+            orders.add(order.withProperty(property));
+        }
+        // the id breaks ties, so the cursor of the last order tells exactly where the next page starts
+        Sort sort = Sort.by(orders);
+        if (sort.getOrderFor("id") == null) {
+            sort = sort.and(Sort.by("id"));
+        }
+        int size = Math.max(1, Math.min(pageable.getPageSize(), Keyset.MAX_LIMIT));
+        return PageRequest.of(0, size, sort);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<CustomerOrderDTO> findDTOById(Long id) {
+        return customerOrderRepository.findDTOById(id).map(order -> {
+            customerOrderRepository.fillCakesOrdered(List.of(order));
+            return order;
+        });
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<String> getVersionTag(Long id) {
+        return customerOrderRepository.findVersionById(id)
+                .map(version -> version + "-" + cakeCatalogueCache.getCatalogueVersion());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportAll(Consumer<CustomerOrder> consumer) {
+        try (Stream<CustomerOrder> orders = customerOrderRepository.streamAll()) {
+            Iterator<CustomerOrder> iterator = orders.iterator();
+            int exported = 0;
+            while (iterator.hasNext()) {
+                consumer.accept(iterator.next());
+                if (++exported % EXPORT_CLEAR_INTERVAL == 0) {
+                    entityManager.clear();
+                }
+            }
+        }
+    }
     
 }
@@ -1,18 +1,47 @@
 package app.service;
 
+import app.dto.CustomerDTO;
+import app.dto.CustomerSummaryDTO;
 import app.model.Customer;
 
+import org.springframework.data.domain.Slice;
+
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 public interface CustomerService {
     Customer addCustomer(Customer customer);
 
+    List<Customer> addCustomers(List<Customer> customers);
+
     Customer updateCustomer(Long id, Customer customer);
 
     Optional<Customer> findById(Long id);
 
     void deleteById(Long id);
 
+    /**
+     * Deletes the customers with these ids and all their orders, and returns how many customers
+     * there were. They are only marked as deleted when soft deletes are on.
+     */
+    int deleteByIds(Collection<Long> ids);
+
     List<Customer> getAll();
+
+    Slice<CustomerDTO> getDTOPage(Long after, int limit);
+
+    Optional<CustomerDTO> findDTOById(Long id);
+
+    /**
+     * Returns a tag that changes whenever the customer, one of its orders or one of the cakes
+     * ordered changes.
+     */
+    Optional<String> getVersionTag(Long id);
+
+    /**
+     * Returns at most limit customers with, for every word of the query, a word of the name or
+     * the email starting with it. Served from memory, without reaching the database.
+     */
+    List<CustomerSummaryDTO> typeahead(String query, int limit);
 }
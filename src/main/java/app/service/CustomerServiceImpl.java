@@ -1,24 +1,68 @@
 package app.service;
 
+import app.dto.CustomerDTO;
+import app.dto.CustomerOrderDTO;
+import app.dto.CustomerSummaryDTO;
 import app.model.Customer;
+import app.repository.CustomerOrderRepository;
 import app.repository.CustomerRepository;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.Date;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class CustomerServiceImpl implements CustomerService {
     private final CustomerRepository customerRepository;
+    private final CustomerOrderRepository customerOrderRepository;
+    private final EntityManager entityManager;
+    private final CakeCatalogueCache cakeCatalogueCache;
+    private final CustomerTypeaheadIndex customerTypeaheadIndex;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CustomerOrderService customerOrderService;
+    private final boolean softDelete;
 
-    public CustomerServiceImpl(CustomerRepository customerRepository) {
+    public CustomerServiceImpl(CustomerRepository customerRepository, CustomerOrderRepository customerOrderRepository,
+                               EntityManager entityManager, CakeCatalogueCache cakeCatalogueCache,
+                               CustomerTypeaheadIndex customerTypeaheadIndex, ApplicationEventPublisher eventPublisher,
+                               CustomerOrderService customerOrderService,
+                               @Value("${bezkoder.app.softDelete:false}") boolean softDelete) {
         this.customerRepository = customerRepository;
+        this.customerOrderRepository = customerOrderRepository;
+        this.entityManager = entityManager;
+        this.cakeCatalogueCache = cakeCatalogueCache;
+        this.customerTypeaheadIndex = customerTypeaheadIndex;
+        this.eventPublisher = eventPublisher;
+        this.customerOrderService = customerOrderService;
+        this.softDelete = softDelete;
     }
 
 
     @Override
     public Customer addCustomer(Customer customer) {
-        return customerRepository.save(customer);
+        customer.setId(null);
+        Customer saved = customerRepository.save(customer);
+        eventPublisher.publishEvent(CustomerChangedEvent.saved(List.of(saved)));
+        return saved;
+    }
+
+    @Override
+    @Transactional
+    public List<Customer> addCustomers(List<Customer> customers) {
+        customers.forEach(customer -> customer.setId(null));
+        List<Customer> saved = Batches.saveAll(customerRepository, entityManager, customers);
+        eventPublisher.publishEvent(CustomerChangedEvent.saved(saved));
+        return saved;
     }
 
     @Override
@@ -30,26 +74,85 @@ public class CustomerServiceImpl implements CustomerService {
             c.setLastName(customer.getLastName());
             c.setEmail(customer.getEmail());
             c.setDeliveryAddress(customer.getDeliveryAddress());
-
-            return customerRepository.save(c);
+            customer = c;
+        } else {
+            customer.setId(null);
         }
-        return customerRepository.save(customer);
-
-
+        Customer saved = customerRepository.save(customer);
+        eventPublisher.publishEvent(CustomerChangedEvent.saved(List.of(saved)));
+        return saved;
     }
 
     @Override
     public Optional<Customer> findById(Long id) {
-        return customerRepository.findById(id);
+        return customerRepository.findWithOrdersById(id);
     }
 
     @Override
+    @Transactional
     public void deleteById(Long id) {
-        customerRepository.deleteById(id);
+        deleteByIds(List.of(id));
+    }
+
+    @Override
+    @Transactional
+    public int deleteByIds(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        if (ids.size() > CustomerOrderRepository.IN_CHUNK_SIZE) {
+            throw new IllegalArgumentException("At most " + CustomerOrderRepository.IN_CHUNK_SIZE + " customers can be deleted at once");
+        }
+        // the orders go first, whatever their number, as they refer to the customers
+        customerOrderService.deleteByCustomerIds(ids);
+        int deleted = softDelete ? customerRepository.softDeleteByIdIn(ids, new Date()) : customerRepository.deleteByIdIn(ids);
+        eventPublisher.publishEvent(CustomerChangedEvent.deleted(ids));
+        return deleted;
     }
 
     @Override
     public List<Customer> getAll() {
         return customerRepository.findAll();
     }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<CustomerDTO> getDTOPage(Long after, int limit) {
+        Slice<CustomerDTO> page = customerRepository.findDTOsByIdGreaterThan(Keyset.after(after), Keyset.limit(limit));
+        fillOrdersList(page.getContent());
+        return page;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<CustomerDTO> findDTOById(Long id) {
+        return customerRepository.findDTOById(id).map(customer -> {
+            fillOrdersList(List.of(customer));
+            return customer;
+        });
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<String> getVersionTag(Long id) {
+        // the orders are the inverse side, adding or removing one does not bump the customer's version
+        return customerRepository.aggregateVersionById(id)
+                .map(version -> version.tag() + "-" + cakeCatalogueCache.getCatalogueVersion());
+    }
+
+    @Override
+    public List<CustomerSummaryDTO> typeahead(String query, int limit) {
+        return customerTypeaheadIndex.find(query, Keyset.limit(limit).getPageSize());
+    }
+
+    private void fillOrdersList(List<CustomerDTO> customers) {
+        if (customers.isEmpty()) {
+            return;
+        }
+        Map<Long, CustomerDTO> byId = customers.stream()
+                .collect(Collectors.toMap(CustomerDTO::getId, Function.identity()));
+        List<CustomerOrderDTO> orders = customerOrderRepository.findDTOsByCustomerIdIn(byId.keySet());
+        customerOrderRepository.fillCakesOrdered(orders)
+                .forEach(order -> byId.get(order.getCustomerId()).getOrdersList().add(order));
+    }
 }
@@ -0,0 +1,161 @@
+package app.service;
+
+import app.dto.CustomerSummaryDTO;
+import app.repository.CustomerRepository;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Sorted index of the words of the customers' names and of their emails, so a lookup as the user
+ * types only walks the keys starting with what was typed and never reaches the database. The
+ * first lookup pages through the summaries of all the customers; after that, the
+ * {@link CustomerChangedEvent}s published by the API and the order import re-key the customers
+ * they carry. Customers written by other instances or by hand are only seen after a restart.
+ * Reads take no lock, so a lookup running during an update may miss the customer or find it
+ * under its old name.
+ */
+@Component
+public class CustomerTypeaheadIndex {
+
+    private static final Comparator<Key> KEY_ORDER = Comparator.comparing(Key::word).thenComparing(Key::customerId);
+
+    private final CustomerRepository customerRepository;
+
+    private final NavigableSet<Key> keys = new ConcurrentSkipListSet<>(KEY_ORDER);
+
+    private final Map<Long, Entry> customers = new ConcurrentHashMap<>();
+
+    private final TransactionTemplate transactionTemplate;
+
+    // serializes the load and the updates; unlike a monitor, it does not pin a virtual thread waiting on JDBC
+    private final Lock lock = new ReentrantLock();
+
+    private volatile boolean loaded;
+
+    public CustomerTypeaheadIndex(CustomerRepository customerRepository, PlatformTransactionManager transactionManager) {
+        this.customerRepository = customerRepository;
+        // loads in a transaction of its own, never seeing customers the caller may still roll back
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    /**
+     * Returns at most limit customers with, for every word of the query, a word of the name or the
+     * email starting with it. Customers come in the order of the key matching the longest word.
+     */
+    public List<CustomerSummaryDTO> find(String query, int limit) {
+        List<String> words = words(query);
+        if (words.isEmpty()) {
+            return List.of();
+        }
+        load();
+        // the longest word has the fewest keys to walk
+        String driver = words.stream().max(Comparator.comparingInt(String::length)).orElseThrow();
+        Set<Long> seen = new HashSet<>();
+        List<CustomerSummaryDTO> result = new ArrayList<>(limit);
+        for (Key key : keys.tailSet(new Key(driver, Long.MIN_VALUE))) {
+            if (!key.word().startsWith(driver) || result.size() >= limit) {
+                break;
+            }
+            Entry entry = customers.get(key.customerId());
+            if (entry != null && seen.add(key.customerId()) && entry.matches(words)) {
+                result.add(entry.customer());
+            }
+        }
+        return result;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCustomersChanged(CustomerChangedEvent event) {
+        lock.lock();
+        try {
+            // the keys do not exist before the first lookup, which will read these customers from the table
+            if (!loaded) {
+                return;
+            }
+            event.deleted().forEach(this::remove);
+            event.saved().forEach(this::put);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void load() {
+        if (loaded) {
+            return;
+        }
+        lock.lock();
+        try {
+            if (loaded) {
+                return;
+            }
+            transactionTemplate.executeWithoutResult(status -> {
+                long after = 0;
+                Slice<CustomerSummaryDTO> page;
+                do {
+                    page = customerRepository.findSummariesByIdGreaterThan(after, Keyset.limit(Keyset.MAX_LIMIT));
+                    for (CustomerSummaryDTO customer : page) {
+                        put(customer);
+                        after = customer.id();
+                    }
+                } while (page.hasNext());
+            });
+            loaded = true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void put(CustomerSummaryDTO customer) {
+        remove(customer.id());
+        List<String> words = new ArrayList<>(words(customer.firstName()));
+        words.addAll(words(customer.lastName()));
+        words.addAll(words(customer.email()));
+        Entry entry = new Entry(customer, List.copyOf(new LinkedHashSet<>(words)));
+        customers.put(customer.id(), entry);
+        entry.words().forEach(word -> keys.add(new Key(word, customer.id())));
+    }
+
+    private void remove(Long id) {
+        Entry entry = customers.remove(id);
+        if (entry != null) {
+            entry.words().forEach(word -> keys.remove(new Key(word, id)));
+        }
+    }
+
+    private static List<String> words(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        return List.of(text.trim().toLowerCase(Locale.ROOT).split("\\s+"));
+    }
+
+    private record Key(String word, Long customerId) {
+    }
+
+    private record Entry(CustomerSummaryDTO customer, List<String> words) {
+
+        boolean matches(List<String> prefixes) {
+            return prefixes.stream().allMatch(prefix -> words.stream().anyMatch(word -> word.startsWith(prefix)));
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package app.service;
+
+import app.dto.CacheRegionStatsDTO;
+
+import java.util.List;
+
+public interface EntityCacheService {
+    List<CacheRegionStatsDTO> getRegionStats();
+}
@@ -0,0 +1,41 @@
+package app.service;
+
+import app.config.EntityCacheConfig;
+import app.dto.CacheRegionStatsDTO;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Service
+public class EntityCacheServiceImpl implements EntityCacheService {
+
+    private final Statistics statistics;
+
+    public EntityCacheServiceImpl(EntityManagerFactory entityManagerFactory) {
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Override
+    public List<CacheRegionStatsDTO> getRegionStats() {
+        List<CacheRegionStatsDTO> stats = new ArrayList<>();
+        for (String region : EntityCacheConfig.DATA_REGIONS) {
+            stats.add(toDTO(region, statistics.getDomainDataRegionStatistics(region)));
+        }
+        stats.add(toDTO(EntityCacheConfig.QUERY_RESULTS_REGION,
+                statistics.getQueryRegionStatistics(EntityCacheConfig.QUERY_RESULTS_REGION)));
+        return stats;
+    }
+
+    private static CacheRegionStatsDTO toDTO(String region, CacheRegionStatistics regionStatistics) {
+        if (regionStatistics == null) {
+            return new CacheRegionStatsDTO(region, 0, 0, 0);
+        }
+        return new CacheRegionStatsDTO(region, regionStatistics.getHitCount(), regionStatistics.getMissCount(),
+                regionStatistics.getPutCount());
+    }
+}
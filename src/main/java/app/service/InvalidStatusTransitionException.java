@@ -0,0 +1,13 @@
+package app.service;
+
+import app.enums.OrderStatus;
+
+/**
+ * Thrown when an update would move an order to a status it cannot reach from its current one.
+ */
+public class InvalidStatusTransitionException extends RuntimeException {
+
+    public InvalidStatusTransitionException(OrderStatus from, OrderStatus to) {
+        super("an order cannot go from " + from + " to " + to);
+    }
+}
@@ -0,0 +1,20 @@
+package app.service;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+final class Keyset {
+    static final int MAX_LIMIT = 500;
+
+    private Keyset() {
+    }
+
+    static long after(Long cursor) {
+        return cursor == null ? 0L : cursor;
+    }
+
+    static Pageable limit(int limit) {
+        return PageRequest.of(0, Math.max(1, Math.min(limit, MAX_LIMIT)), Sort.by("id"));
+    }
+}
@@ -0,0 +1,21 @@
+package app.service;
+
+import app.dto.ImportResultDTO;
+
+/**
+ * Thrown when an import fails after some of its chunks were committed. The result counts what
+ * those chunks imported and tells why the import stopped.
+ */
+public class OrderImportException extends RuntimeException {
+
+    private final ImportResultDTO result;
+
+    public OrderImportException(ImportResultDTO result, RuntimeException cause) {
+        super(cause.getMessage(), cause);
+        this.result = result;
+    }
+
+    public ImportResultDTO getResult() {
+        return result;
+    }
+}
@@ -0,0 +1,148 @@
+package app.service;
+
+import app.dto.OrderImportDTO;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads order import records one line at a time, either from NDJSON or from CSV with a header
+ * line naming the {@link OrderImportDTO} properties. In CSV the cakes column separates cake names
+ * with '|', and quoted fields may not span lines.
+ */
+abstract class OrderImportReader {
+
+    private final BufferedReader reader;
+
+    private long line;
+
+    private OrderImportReader(BufferedReader reader) {
+        this.reader = reader;
+    }
+
+    static OrderImportReader ndjson(BufferedReader reader, ObjectReader jsonReader) {
+        return new OrderImportReader(reader) {
+            @Override
+            OrderImportDTO parse(String text) {
+                OrderImportDTO record;
+                try {
+                    record = jsonReader.readValue(text);
+                } catch (JsonProcessingException e) {
+                    throw new IllegalArgumentException("invalid JSON: " + e.getOriginalMessage());
+                }
+                // a line that is just null reads as no record at all
+                if (record == null) {
+                    throw new IllegalArgumentException("invalid JSON: not an object");
+                }
+                return record;
+            }
+        };
+    }
+
+    static OrderImportReader csv(BufferedReader reader) throws IOException {
+        String header = reader.readLine();
+        if (header == null) {
+            throw new IllegalArgumentException("CSV import is empty");
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        List<String> names = splitCsv(header);
+        for (int i = 0; i < names.size(); i++) {
+            columns.put(names.get(i).trim(), i);
+        }
+        OrderImportReader csvReader = new OrderImportReader(reader) {
+            @Override
+            OrderImportDTO parse(String text) {
+                List<String> fields = splitCsv(text);
+                OrderImportDTO record = new OrderImportDTO();
+                record.setCustomerEmail(field(fields, columns, "customerEmail"));
+                record.setCustomerFirstName(field(fields, columns, "customerFirstName"));
+                record.setCustomerLastName(field(fields, columns, "customerLastName"));
+                record.setCustomerDeliveryAddress(field(fields, columns, "customerDeliveryAddress"));
+                record.setName(field(fields, columns, "name"));
+                record.setStatus(field(fields, columns, "status"));
+                String deliveryDate = field(fields, columns, "deliveryDate");
+                try {
+                    record.setDeliveryDate(deliveryDate == null ? null : LocalDate.parse(deliveryDate));
+                } catch (DateTimeParseException e) {
+                    throw new IllegalArgumentException("invalid deliveryDate " + deliveryDate);
+                }
+                String cakes = field(fields, columns, "cakes");
+                if (cakes != null) {
+                    record.setCakes(new ArrayList<>(Arrays.asList(cakes.split("\\|"))));
+                }
+                return record;
+            }
+        };
+        csvReader.line = 1;
+        return csvReader;
+    }
+
+    abstract OrderImportDTO parse(String text);
+
+    /**
+     * Returns the next record, or null at the end of the input. A line that cannot be parsed
+     * throws IllegalArgumentException and is consumed, so reading can go on with the next one.
+     */
+    OrderImportDTO next() throws IOException {
+        String text;
+        do {
+            text = reader.readLine();
+            if (text == null) {
+                return null;
+            }
+            line++;
+        } while (text.isBlank());
+        OrderImportDTO record = parse(text);
+        record.setLine(line);
+        return record;
+    }
+
+    long getLine() {
+        return line;
+    }
+
+    private static String field(List<String> fields, Map<String, Integer> columns, String name) {
+        Integer index = columns.get(name);
+        if (index == null || index >= fields.size() || fields.get(index).isEmpty()) {
+            return null;
+        }
+        return fields.get(index);
+    }
+
+    static List<String> splitCsv(String text) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < text.length(); i++) {
+            char ch = text.charAt(i);
+            if (quoted) {
+                if (ch != '"') {
+                    field.append(ch);
+                } else if (i + 1 < text.length() && text.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (ch == '"') {
+                quoted = true;
+            } else if (ch == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(ch);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
@@ -0,0 +1,12 @@
+package app.service;
+
+import app.dto.ImportResultDTO;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+public interface OrderImportService {
+    ImportResultDTO importCsv(InputStream input) throws IOException;
+
+    ImportResultDTO importNdjson(InputStream input) throws IOException;
+}
@@ -0,0 +1,348 @@
+package app.service;
+
+import app.dto.ImportResultDTO;
+import app.dto.OrderImportDTO;
+import app.enums.OrderStatus;
+import app.model.Cake;
+import app.model.Customer;
+import app.model.CustomerOrder;
+import app.repository.CakeRepository;
+import app.repository.CustomerRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import jakarta.persistence.EntityManager;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.id.IdentifierGenerator;
+import org.postgresql.copy.CopyManager;
+import org.postgresql.core.BaseConnection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@Service
+public class OrderImportServiceImpl implements OrderImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderImportServiceImpl.class);
+
+    // records resolved and written per transaction
+    private static final int CHUNK_SIZE = 2000;
+
+    private final CakeRepository cakeRepository;
+    private final CustomerRepository customerRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectReader jsonReader;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public OrderImportServiceImpl(CakeRepository cakeRepository, CustomerRepository customerRepository,
+                                  EntityManager entityManager, PlatformTransactionManager transactionManager,
+                                  ObjectMapper objectMapper, ApplicationEventPublisher eventPublisher) {
+        this.cakeRepository = cakeRepository;
+        this.customerRepository = customerRepository;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.jsonReader = objectMapper.readerFor(OrderImportDTO.class);
+        this.eventPublisher = eventPublisher;
+    }
+
+    @Override
+    public ImportResultDTO importCsv(InputStream input) throws IOException {
+        return importOrders(OrderImportReader.csv(reader(input)));
+    }
+
+    @Override
+    public ImportResultDTO importNdjson(InputStream input) throws IOException {
+        return importOrders(OrderImportReader.ndjson(reader(input), jsonReader));
+    }
+
+    private static BufferedReader reader(InputStream input) {
+        return new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+    }
+
+    private ImportResultDTO importOrders(OrderImportReader reader) throws IOException {
+        ImportResultDTO result = new ImportResultDTO();
+        // the catalogue is small, so cake names stay resolved for the whole import
+        Map<String, Long> cakeIds = new HashMap<>();
+        List<OrderImportDTO> chunk = new ArrayList<>(CHUNK_SIZE);
+        while (true) {
+            OrderImportDTO record;
+            try {
+                record = reader.next();
+            } catch (IllegalArgumentException e) {
+                result.skip(reader.getLine(), e.getMessage());
+                continue;
+            }
+            if (record == null) {
+                break;
+            }
+            chunk.add(record);
+            if (chunk.size() == CHUNK_SIZE) {
+                importChunk(chunk, cakeIds, result);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            importChunk(chunk, cakeIds, result);
+        }
+        logger.info("Order import finished: {} orders imported, {} customers created, {} lines skipped",
+                result.getImported(), result.getCustomersCreated(), result.getSkipped());
+        return result;
+    }
+
+    /**
+     * Imports the chunk in a transaction of its own. When it fails, the counts go back to the
+     * chunks committed before it, and the failure is thrown as an OrderImportException if there
+     * are any.
+     */
+    private void importChunk(List<OrderImportDTO> chunk, Map<String, Long> cakeIds, ImportResultDTO result) {
+        long imported = result.getImported();
+        long customersCreated = result.getCustomersCreated();
+        try {
+            writeChunk(chunk, cakeIds, result);
+        } catch (RuntimeException e) {
+            result.setImported(imported);
+            result.setCustomersCreated(customersCreated);
+            if (imported == 0 && customersCreated == 0) {
+                throw e;
+            }
+            logger.warn("Order import stopped after {} orders imported: {}", imported, e.getMessage());
+            result.setError(e.getMessage());
+            throw new OrderImportException(result, e);
+        }
+    }
+
+    private void writeChunk(List<OrderImportDTO> chunk, Map<String, Long> cakeIds, ImportResultDTO result) {
+        transactionTemplate.executeWithoutResult(status -> {
+            List<OrderImportDTO> valid = new ArrayList<>(chunk.size());
+            for (OrderImportDTO record : chunk) {
+                String error = validate(record);
+                if (error == null) {
+                    valid.add(record);
+                } else {
+                    result.skip(record.getLine(), error);
+                }
+            }
+            resolveCakes(valid, cakeIds);
+            Map<String, Long> customerIds = resolveCustomers(valid, result);
+
+            SessionImplementor session = entityManager.unwrap(SessionImplementor.class);
+            IdentifierGenerator orderIds = (IdentifierGenerator) session.getFactory().getMappingMetamodel()
+                    .getEntityDescriptor(CustomerOrder.class).getGenerator();
+            List<OrderRow> rows = new ArrayList<>(valid.size());
+            for (OrderImportDTO record : valid) {
+                Long customerId = customerIds.get(record.getCustomerEmail());
+                if (customerId == null) {
+                    continue;
+                }
+                List<Long> cakes = new ArrayList<>(record.getCakes().size());
+                String unknownCake = null;
+                for (String cake : record.getCakes()) {
+                    Long cakeId = cakeIds.get(cake);
+                    if (cakeId == null) {
+                        unknownCake = cake;
+                        break;
+                    }
+                    cakes.add(cakeId);
+                }
+                if (unknownCake != null) {
+                    result.skip(record.getLine(), "unknown cake " + unknownCake);
+                    continue;
+                }
+                Long id = (Long) orderIds.generate(session, null);
+                rows.add(new OrderRow(id, record.getName(), record.getDeliveryDate(), status(record), customerId, cakes));
+            }
+
+            entityManager.flush();
+            session.doWork(connection -> writeOrders(connection, rows));
+            entityManager.clear();
+            result.setImported(result.getImported() + rows.size());
+            List<ProductionPlanChangedEvent.Change> changes = new ArrayList<>();
+            for (OrderRow row : rows) {
+                if (row.status() == null || !row.status().isOpen()) {
+                    continue;
+                }
+                row.cakeIds().forEach(cakeId -> changes.add(new ProductionPlanChangedEvent.Change(row.deliveryDate(), cakeId, 1)));
+            }
+            eventPublisher.publishEvent(new ProductionPlanChangedEvent(changes));
+        });
+        logger.info("Order import: {} orders imported, {} lines skipped so far", result.getImported(), result.getSkipped());
+    }
+
+    private static String validate(OrderImportDTO record) {
+        if (isBlank(record.getCustomerEmail())) {
+            return "customerEmail is required";
+        }
+        if (isBlank(record.getName())) {
+            return "name is required";
+        }
+        if (record.getDeliveryDate() == null) {
+            return "deliveryDate is required";
+        }
+        if (isBlank(record.getStatus())) {
+            return "status is required";
+        }
+        if (status(record) == null) {
+            return "unknown status " + record.getStatus();
+        }
+        // a JSON null replaces the empty list
+        if (record.getCakes() == null || record.getCakes().contains(null)) {
+            return "cakes is required";
+        }
+        return null;
+    }
+
+    private static OrderStatus status(OrderImportDTO record) {
+        return OrderStatus.parse(record.getStatus());
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    private void resolveCakes(List<OrderImportDTO> records, Map<String, Long> cakeIds) {
+        Set<String> missing = new HashSet<>();
+        records.forEach(record -> record.getCakes().stream().filter(cake -> !cakeIds.containsKey(cake)).forEach(missing::add));
+        if (!missing.isEmpty()) {
+            cakeRepository.findByNameIn(missing).forEach(cake -> cakeIds.putIfAbsent(cake.getName(), cake.getId()));
+        }
+    }
+
+    /**
+     * Maps the customer emails of the records to customer ids, creating the customers that do
+     * not exist yet. Records of customers that cannot be created are skipped.
+     */
+    private Map<String, Long> resolveCustomers(List<OrderImportDTO> records, ImportResultDTO result) {
+        Set<String> emails = new HashSet<>();
+        records.forEach(record -> emails.add(record.getCustomerEmail()));
+        Map<String, Long> customerIds = new HashMap<>();
+        customerRepository.findByEmailInOrderById(emails)
+                .forEach(customer -> customerIds.putIfAbsent(customer.getEmail(), customer.getId()));
+
+        Map<String, Customer> created = new HashMap<>();
+        for (OrderImportDTO record : records) {
+            String email = record.getCustomerEmail();
+            if (customerIds.containsKey(email) || created.containsKey(email)) {
+                continue;
+            }
+            if (isBlank(record.getCustomerFirstName()) || isBlank(record.getCustomerLastName())
+                    || isBlank(record.getCustomerDeliveryAddress())) {
+                continue;
+            }
+            created.put(email, new Customer(null, record.getCustomerFirstName(), record.getCustomerLastName(),
+                    email, record.getCustomerDeliveryAddress(), new ArrayList<>(), null, null));
+        }
+        List<Customer> saved = Batches.saveAll(customerRepository, entityManager, new ArrayList<>(created.values()));
+        saved.forEach(customer -> customerIds.put(customer.getEmail(), customer.getId()));
+        if (!saved.isEmpty()) {
+            eventPublisher.publishEvent(CustomerChangedEvent.saved(saved));
+        }
+        result.setCustomersCreated(result.getCustomersCreated() + created.size());
+
+        for (OrderImportDTO record : records) {
+            if (!customerIds.containsKey(record.getCustomerEmail())) {
+                result.skip(record.getLine(), "unknown customer " + record.getCustomerEmail()
+                        + " without firstName, lastName and deliveryAddress to create it");
+            }
+        }
+        return customerIds;
+    }
+
+    private static void writeOrders(Connection connection, List<OrderRow> rows) throws SQLException {
+        if (rows.isEmpty()) {
+            return;
+        }
+        if (connection.isWrapperFor(BaseConnection.class)) {
+            copyOrders(connection.unwrap(BaseConnection.class), rows);
+        } else {
+            insertOrders(connection, rows);
+        }
+    }
+
+    // order_cakes keeps the order id in cake_id and the cake id in customer_order_id, see CustomerOrder.cakesOrdered
+
+    private static void copyOrders(BaseConnection connection, List<OrderRow> rows) throws SQLException {
+        StringBuilder orders = new StringBuilder(rows.size() * 64);
+        StringBuilder orderCakes = new StringBuilder(rows.size() * 16);
+        for (OrderRow row : rows) {
+            orders.append(row.id()).append(',')
+                    .append(csv(row.name())).append(',')
+                    .append(deliveryTimestamp(row.deliveryDate())).append(',')
+                    .append(row.status().name()).append(',')
+                    .append(row.customerId()).append(',')
+                    .append(0).append('\n');
+            for (Long cakeId : row.cakeIds()) {
+                orderCakes.append(row.id()).append(',').append(cakeId).append('\n');
+            }
+        }
+        CopyManager copyManager = new CopyManager(connection);
+        try {
+            copyManager.copyIn("COPY customer_order (id, name, delivery_date, status, customer_id, version) FROM STDIN WITH (FORMAT csv)",
+                    new StringReader(orders.toString()));
+            copyManager.copyIn("COPY order_cakes (cake_id, customer_order_id) FROM STDIN WITH (FORMAT csv)",
+                    new StringReader(orderCakes.toString()));
+        } catch (IOException e) {
+            throw new SQLException("COPY of imported orders failed", e);
+        }
+    }
+
+    private static String csv(String value) {
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    private static void insertOrders(Connection connection, List<OrderRow> rows) throws SQLException {
+        try (PreparedStatement orders = connection.prepareStatement(
+                "insert into customer_order (id, name, delivery_date, status, customer_id, version) values (?, ?, ?, ?, ?, 0)");
+             PreparedStatement orderCakes = connection.prepareStatement(
+                     "insert into order_cakes (cake_id, customer_order_id) values (?, ?)")) {
+            for (OrderRow row : rows) {
+                orders.setLong(1, row.id());
+                orders.setString(2, row.name());
+                orders.setTimestamp(3, deliveryTimestamp(row.deliveryDate()));
+                orders.setString(4, row.status().name());
+                orders.setLong(5, row.customerId());
+                orders.addBatch();
+                for (Long cakeId : row.cakeIds()) {
+                    orderCakes.setLong(1, row.id());
+                    orderCakes.setLong(2, cakeId);
+                    orderCakes.addBatch();
+                }
+            }
+            orders.executeBatch();
+            orderCakes.executeBatch();
+        }
+    }
+
+    /**
+     * The API reads delivery dates as UTC days, so the day is stored at UTC midnight. Like the
+     * driver does for the JPA writes, its text form is the JVM local time of that instant.
+     */
+    private static Timestamp deliveryTimestamp(LocalDate deliveryDate) {
+        return Timestamp.from(deliveryDate.atStartOfDay(ZoneOffset.UTC).toInstant());
+    }
+
+    private record OrderRow(Long id, String name, LocalDate deliveryDate, OrderStatus status, Long customerId,
+                            List<Long> cakeIds) {
+    }
+}
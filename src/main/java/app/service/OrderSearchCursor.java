@@ -0,0 +1,61 @@
+package app.service;
+
+import app.dto.CustomerOrderDTO;
+import app.enums.OrderStatus;
+import org.springframework.data.domain.Sort;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+import java.util.StringJoiner;
+
+/**
+ * Cursor of the order search: the values of the sort properties of the last order of a page, the
+ * id last, each Base64 encoded and joined with dots. It is only valid with the sort it was made
+ * for; a cursor that does not fit the sort throws IllegalArgumentException.
+ */
+public final class OrderSearchCursor {
+
+    private OrderSearchCursor() {
+    }
+
+    public static String of(CustomerOrderDTO order, Sort sort) {
+        StringJoiner cursor = new StringJoiner(".");
+        for (Sort.Order key : sort) {
+            String value = switch (key.getProperty()) {
+                case "id" -> order.getId().toString();
+                case "name" -> order.getName();
+                case "deliveryDate" -> String.valueOf(order.getDeliveryDate().getTime());
+                case "Status" -> order.getStatus().name();
+                default -> throw new IllegalArgumentException("Orders cannot be sorted by " + key.getProperty());
+            };
+            cursor.add(Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8)));
+        }
+        return cursor.toString();
+    }
+
+    static List<Object> parse(String cursor, Sort sort) {
+        String[] parts = cursor.split("\\.", -1);
+        List<Sort.Order> keys = sort.toList();
+        if (parts.length != keys.size()) {
+            throw new IllegalArgumentException("Invalid cursor for this sort");
+        }
+        List<Object> values = new ArrayList<>(parts.length);
+        try {
+            for (int i = 0; i < parts.length; i++) {
+                String value = new String(Base64.getUrlDecoder().decode(parts[i]), StandardCharsets.UTF_8);
+                values.add(switch (keys.get(i).getProperty()) {
+                    case "id" -> Long.valueOf(value);
+                    case "deliveryDate" -> new Date(Long.parseLong(value));
+                    case "Status" -> OrderStatus.valueOf(value);
+                    default -> value;
+                });
+            }
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor for this sort");
+        }
+        return values;
+    }
+}
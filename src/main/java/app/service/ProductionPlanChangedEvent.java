@@ -0,0 +1,46 @@
+package app.service;
+
+import app.model.Cake;
+import app.model.CustomerOrder;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Published by {@link CustomerOrderServiceImpl} and {@link OrderImportServiceImpl} with the number
+ * of cakes added to, or taken from, each delivery day. Listeners bound to the transaction only see
+ * it once the change is committed.
+ */
+public record ProductionPlanChangedEvent(List<Change> changes) {
+
+    public record Change(LocalDate deliveryDay, Long cakeId, int quantity) {
+    }
+
+    /**
+     * Returns the changes that add (sign 1) or remove (sign -1) the cakes of the open orders, the
+     * others are not on the plan.
+     */
+    static List<Change> changes(Collection<CustomerOrder> orders, int sign) {
+        List<Change> changes = new ArrayList<>();
+        for (CustomerOrder order : orders) {
+            if (order.getDeliveryDate() == null || order.getCakesOrdered() == null
+                    || order.getStatus() == null || !order.getStatus().isOpen()) {
+                continue;
+            }
+            LocalDate day = deliveryDay(order.getDeliveryDate());
+            for (Cake cake : order.getCakesOrdered()) {
+                changes.add(new Change(day, cake.getId(), sign));
+            }
+        }
+        return changes;
+    }
+
+    // the API serializes delivery dates as UTC days
+    static LocalDate deliveryDay(Date deliveryDate) {
+        return deliveryDate.toInstant().atZone(ZoneOffset.UTC).toLocalDate();
+    }
+}
@@ -0,0 +1,20 @@
+package app.service;
+
+import app.dto.ProductionDayDTO;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface ProductionPlanService {
+
+    /**
+     * Returns, for each delivery day from today on in the range, how many of each cake to bake.
+     * Days without cakes are left out.
+     */
+    List<ProductionDayDTO> getPlan(LocalDate from, LocalDate until);
+
+    /**
+     * Recounts the plan from the orders, for repairs after the database was changed by hand.
+     */
+    void rebuild();
+}
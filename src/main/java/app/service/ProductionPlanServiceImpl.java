@@ -0,0 +1,154 @@
+package app.service;
+
+import app.dto.DeliveryDayCakeCountDTO;
+import app.dto.PlannedCakeDTO;
+import app.dto.ProductionDayDTO;
+import app.enums.OrderStatus;
+import app.model.Cake;
+import app.repository.CakeRepository;
+import app.repository.CustomerOrderRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Keeps the number of each cake to bake per upcoming delivery day in memory, so reading a day
+ * costs the same whatever the number of orders. Only open orders count, a cancelled or delivered
+ * order has nothing left to bake. The first read counts the cakes per day in a single grouped
+ * query; from then on, each {@link ProductionPlanChangedEvent} adds or subtracts the cakes of the
+ * orders it describes. Days are dropped once they are past. Orders written around a (re)build
+ * may be missed or counted twice, and changes made by other instances or by hand are not seen;
+ * {@link #rebuild()} repairs both.
+ */
+@Service
+public class ProductionPlanServiceImpl implements ProductionPlanService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductionPlanServiceImpl.class);
+
+    private final CustomerOrderRepository customerOrderRepository;
+    private final CakeRepository cakeRepository;
+
+    // cakes to bake by delivery day and cake id, null until the plan is first used
+    private volatile ConcurrentNavigableMap<LocalDate, Map<Long, Integer>> days;
+
+    // one count of the orders at a time; a monitor would pin the virtual thread waiting on the query
+    private final Lock countLock = new ReentrantLock();
+
+    public ProductionPlanServiceImpl(CustomerOrderRepository customerOrderRepository, CakeRepository cakeRepository) {
+        this.customerOrderRepository = customerOrderRepository;
+        this.cakeRepository = cakeRepository;
+    }
+
+    @Override
+    public List<ProductionDayDTO> getPlan(LocalDate from, LocalDate until) {
+        LocalDate today = today();
+        ConcurrentNavigableMap<LocalDate, Map<Long, Integer>> plan = plan();
+        plan.headMap(today).clear();
+        LocalDate first = from.isBefore(today) ? today : from;
+        if (until.isBefore(first)) {
+            return List.of();
+        }
+
+        Map<LocalDate, Map<Long, Integer>> range = new TreeMap<>();
+        Set<Long> cakeIds = new HashSet<>();
+        plan.subMap(first, true, until, true).forEach((day, cakes) -> {
+            if (!cakes.isEmpty()) {
+                range.put(day, new TreeMap<>(cakes));
+                cakeIds.addAll(cakes.keySet());
+            }
+        });
+        // cakes are in the second-level cache, this rarely reaches the database
+        Map<Long, String> names = new HashMap<>();
+        for (Cake cake : cakeRepository.findAllById(cakeIds)) {
+            names.put(cake.getId(), cake.getName());
+        }
+        List<ProductionDayDTO> result = new ArrayList<>(range.size());
+        range.forEach((day, cakes) -> {
+            List<PlannedCakeDTO> planned = new ArrayList<>(cakes.size());
+            cakes.forEach((cakeId, quantity) -> planned.add(new PlannedCakeDTO(cakeId, names.get(cakeId), quantity)));
+            result.add(new ProductionDayDTO(day, planned));
+        });
+        return result;
+    }
+
+    @Override
+    public void rebuild() {
+        countLock.lock();
+        try {
+            days = load();
+        } finally {
+            countLock.unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPlanChanged(ProductionPlanChangedEvent event) {
+        ConcurrentNavigableMap<LocalDate, Map<Long, Integer>> plan = days;
+        if (plan == null) {
+            // the first read of the plan counts these orders with all the others
+            return;
+        }
+        LocalDate today = today();
+        for (ProductionPlanChangedEvent.Change change : event.changes()) {
+            if (!change.deliveryDay().isBefore(today)) {
+                add(plan, change.deliveryDay(), change.cakeId(), change.quantity());
+            }
+        }
+    }
+
+    private ConcurrentNavigableMap<LocalDate, Map<Long, Integer>> plan() {
+        ConcurrentNavigableMap<LocalDate, Map<Long, Integer>> plan = days;
+        if (plan == null) {
+            countLock.lock();
+            try {
+                if (days == null) {
+                    days = load();
+                }
+                plan = days;
+            } finally {
+                countLock.unlock();
+            }
+        }
+        return plan;
+    }
+
+    private ConcurrentNavigableMap<LocalDate, Map<Long, Integer>> load() {
+        LocalDate today = today();
+        ConcurrentNavigableMap<LocalDate, Map<Long, Integer>> plan = new ConcurrentSkipListMap<>();
+        List<DeliveryDayCakeCountDTO> counts = customerOrderRepository.countCakesByDeliveryDateFrom(
+                Date.from(today.atStartOfDay(ZoneOffset.UTC).toInstant()), OrderStatus.open());
+        for (DeliveryDayCakeCountDTO count : counts) {
+            LocalDate day = count.deliveryDate().toInstant().atZone(ZoneOffset.UTC).toLocalDate();
+            add(plan, day, count.cakeId(), count.quantity().intValue());
+        }
+        logger.info("Production plan counted: {} delivery days from {}", plan.size(), today);
+        return plan;
+    }
+
+    private static void add(ConcurrentNavigableMap<LocalDate, Map<Long, Integer>> plan, LocalDate day, Long cakeId,
+                            int quantity) {
+        plan.computeIfAbsent(day, d -> new ConcurrentHashMap<>())
+                .merge(cakeId, quantity, (current, change) -> current + change == 0 ? null : current + change);
+    }
+
+    private static LocalDate today() {
+        return LocalDate.now(ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,96 @@
+package app.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Removes the orders and customers marked as deleted when bezkoder.app.softDelete is on. It runs
+ * off-peak and in chunks of its own transaction, so neither the deletes nor their locks ever
+ * grow with the backlog; a run stops after a fixed number of chunks and the next one carries on.
+ * Rows are kept for a delay after being marked, long enough to restore them by hand.
+ */
+@Component
+public class SoftDeletePurger {
+
+    // bounds a run to chunkSize * MAX_CHUNKS rows of each table
+    private static final int MAX_CHUNKS = 100;
+
+    private static final Logger logger = LoggerFactory.getLogger(SoftDeletePurger.class);
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final int chunkSize;
+
+    private final long delayHours;
+
+    public SoftDeletePurger(NamedParameterJdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                            @Value("${bezkoder.app.purgeChunkSize:500}") int chunkSize,
+                            @Value("${bezkoder.app.purgeDelayHours:24}") long delayHours) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+        this.delayHours = delayHours;
+    }
+
+    @Scheduled(cron = "${bezkoder.app.purgeCron:0 */10 1-5 * * *}")
+    public void scheduledPurge() {
+        purge();
+    }
+
+    /**
+     * Removes the orders marked as deleted before the delay, then the customers marked as deleted
+     * who have no order left, and returns how many rows were removed.
+     */
+    public int purge() {
+        MapSqlParameterSource parameters = new MapSqlParameterSource()
+                .addValue("before", new Date(System.currentTimeMillis() - TimeUnit.HOURS.toMillis(delayHours)))
+                .addValue("limit", chunkSize);
+        // order_cakes keeps the order id in cake_id, see CustomerOrder.cakesOrdered
+        int orders = purge("select id from customer_order where deleted_at <= :before order by id limit :limit",
+                "delete from order_cakes where cake_id in (:ids)",
+                "delete from customer_order where id in (:ids)", parameters);
+        int customers = purge("select id from customer c where deleted_at <= :before"
+                        + " and not exists (select 1 from customer_order o where o.customer_id = c.id) order by id limit :limit",
+                null, "delete from customer where id in (:ids)", parameters);
+        if (orders + customers > 0) {
+            logger.info("Purged {} deleted orders and {} deleted customers", orders, customers);
+        }
+        return orders + customers;
+    }
+
+    private int purge(String select, String deleteChildren, String delete, MapSqlParameterSource parameters) {
+        int purged = 0;
+        for (int chunk = 0; chunk < MAX_CHUNKS; chunk++) {
+            Integer count = transactionTemplate.execute(status -> {
+                List<Long> ids = jdbcTemplate.queryForList(select, parameters, Long.class);
+                if (ids.isEmpty()) {
+                    return 0;
+                }
+                MapSqlParameterSource chunkParameters = new MapSqlParameterSource("ids", ids);
+                if (deleteChildren != null) {
+                    jdbcTemplate.update(deleteChildren, chunkParameters);
+                }
+                jdbcTemplate.update(delete, chunkParameters);
+                return ids.size();
+            });
+            purged += count;
+            if (count < chunkSize) {
+                break;
+            }
+        }
+        return purged;
+    }
+}
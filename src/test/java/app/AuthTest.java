@@ -0,0 +1,112 @@
+package app;
+
+import app.enums.RoleType;
+import app.model.Role;
+import app.model.User;
+import app.repository.RoleRepository;
+import app.repository.UserRepository;
+import app.security.PasswordHashingExecutor;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = StoreIngApplication.class,
+        webEnvironment = SpringBootTest.WebEnvironment.MOCK)
+@AutoConfigureMockMvc
+@TestPropertySource(locations = "classpath:application-test.properties")
+public class AuthTest {
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Before
+    public void setUp() {
+        for (RoleType roleType : RoleType.values()) {
+            if (roleRepository.findByName(roleType).isEmpty()) {
+                roleRepository.save(new Role(null, roleType));
+            }
+        }
+    }
+
+    @Test
+    public void signUpAndSignIn() throws Exception {
+        mvc.perform(asyncDispatch(post("/api/auth/signup",
+                        "{\"username\":\"baker\",\"email\":\"baker@store.com\",\"password\":\"secret123\"}")))
+                .andExpect(status().isOk());
+
+        mvc.perform(asyncDispatch(post("/api/auth/signin", "{\"username\":\"baker\",\"password\":\"secret123\"}")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.accessToken").exists())
+                .andExpect(jsonPath("$.roles[0]").value("ROLE_EMPLOYEE"));
+
+        mvc.perform(asyncDispatch(post("/api/auth/signin", "{\"username\":\"baker\",\"password\":\"wrong\"}")))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    public void weakHashIsUpgradedOnLogin() throws Exception {
+        userRepository.save(new User("legacy", "legacy@store.com", new BCryptPasswordEncoder(4).encode("secret123")));
+
+        mvc.perform(asyncDispatch(post("/api/auth/signin", "{\"username\":\"legacy\",\"password\":\"secret123\"}")))
+                .andExpect(status().isOk());
+
+        String password = userRepository.findByUsername("legacy").orElseThrow().getPassword();
+        assertTrue(password.startsWith("$2a$10$"), "expected a cost 10 hash but was " + password);
+    }
+
+    @Test
+    public void saturatedPoolRejectsInsteadOfQueueing() throws Exception {
+        PasswordHashingExecutor executor = new PasswordHashingExecutor(1, 1, new SimpleMeterRegistry());
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            executor.submit(() -> await(release));
+            executor.submit(() -> await(release));
+            assertThrows(RejectedExecutionException.class, () -> executor.submit(() -> await(release)));
+        } finally {
+            release.countDown();
+        }
+    }
+
+    private MvcResult post(String url, String body) throws Exception {
+        return mvc.perform(MockMvcRequestBuilders.post(url).content(body).contentType(MediaType.APPLICATION_JSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+    }
+
+    private static boolean await(CountDownLatch latch) {
+        try {
+            return latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -2,24 +2,36 @@ package app;
 
 import app.controller.CakeController;
 import app.dto.CakeDTO;
+import app.dto.CursorPageDTO;
 import app.model.Cake;
+import app.service.CakeCatalogueCache;
+import app.service.CakeService;
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.web.context.request.ServletWebRequest;
 
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @RunWith(SpringRunner.class)
@@ -33,12 +45,21 @@ public class CakesTest {
 
     @Autowired
     private CakeController cakeController;
+
+    @Autowired
+    private CakeCatalogueCache cakeCatalogueCache;
+
+    @Autowired
+    private CakeService cakeService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
     ObjectMapper m = new ObjectMapper();
 
     @Test
     public void unAuthorizedCake() throws Exception {
 
-        List<CakeDTO> allCakes = this.cakeController.getAllCakes();
+        ResponseEntity<byte[]> allCakes = this.cakeController.getAllCakes(null, 50, new ServletWebRequest(new MockHttpServletRequest()));
         mvc.perform(MockMvcRequestBuilders.get("/server/cakes/all")
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isUnauthorized());
@@ -49,24 +70,24 @@ public class CakesTest {
     @WithMockUser(username = "admin", roles = "EMPLOYEE")
     public void employeeCakeFlow() throws Exception {
 
-        List<CakeDTO> allCakes = this.cakeController.getAllCakes();
+        ResponseEntity<byte[]> allCakes = this.cakeController.getAllCakes(null, 50, new ServletWebRequest(new MockHttpServletRequest()));
         mvc.perform(MockMvcRequestBuilders.get("/server/cakes/all")
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk());
 
 
-        Cake c1 = new Cake(1L, "Chocolate Strawberry", "Rich chocolate flavour", null);
+        Cake c1 = new Cake(1L, "Chocolate Strawberry", "Rich chocolate flavour", null, null);
 
         this.mvc.perform(MockMvcRequestBuilders.post("/server/cakes/new")
                         .content(m.writeValueAsString(c1))
                         .contentType(MediaType.APPLICATION_JSON))
                 .andDo(print())
                 .andExpect(status().isCreated());
-        int i = this.cakeController.getAllCakes().size();
+        int i = allCakes().size();
         assertEquals(1, i);
 
-        Cake c2 = new Cake(1L, "Chocolate Strawberry", "Rich chocolate flavour", null);
-        List<CakeDTO> l = cakeController.getAllCakes();
+        Cake c2 = new Cake(1L, "Chocolate Strawberry", "Rich chocolate flavour", null, null);
+        List<CakeDTO> l = allCakes();
         Long id = l.get(0).getId();
         this.mvc.perform(MockMvcRequestBuilders.put("/server/cakes/" + id).content(m.writeValueAsString(c2))
                         .content(m.writeValueAsString(c2))
@@ -74,15 +95,108 @@ public class CakesTest {
                 .andDo(print())
                 .andExpect(status().isOk());
 
-        i = this.cakeController.getAllCakes().size();
+        i = allCakes().size();
         assertEquals(1, i);
 
         this.mvc.perform(MockMvcRequestBuilders.delete("/server/cakes/" + id))
                 .andDo(print())
                 .andExpect(status().isForbidden());
-        i = this.cakeController.getAllCakes().size();
+        i = allCakes().size();
         assertEquals(1, i);
     }
 
+    @Test
+    @WithMockUser(username = "admin", roles = "EMPLOYEE")
+    public void repeatedCatalogueReadsHitTheCache() throws Exception {
+        mvc.perform(MockMvcRequestBuilders.get("/server/cakes/all?limit=7"))
+                .andExpect(status().isOk());
+        long hits = cakeCatalogueCache.getStats().getHits();
+
+        mvc.perform(MockMvcRequestBuilders.get("/server/cakes/all?limit=7"))
+                .andExpect(status().isOk());
+        assertEquals(hits + 1, cakeCatalogueCache.getStats().getHits());
+    }
+
+    @Test
+    @WithMockUser(username = "admin", roles = "EMPLOYEE")
+    public void unchangedCatalogueIsNotModified() throws Exception {
+        String etag = mvc.perform(MockMvcRequestBuilders.get("/server/cakes/all"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mvc.perform(MockMvcRequestBuilders.get("/server/cakes/all").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+
+        String created = mvc.perform(MockMvcRequestBuilders.post("/server/cakes/new")
+                        .content(m.writeValueAsString(new CakeDTO(null, "Opera", "Coffee and chocolate")))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        try {
+            mvc.perform(MockMvcRequestBuilders.get("/server/cakes/all").header(HttpHeaders.IF_NONE_MATCH, etag))
+                    .andExpect(status().isOk());
+        } finally {
+            cakeService.deleteById(m.readValue(created, CakeDTO.class).getId());
+        }
+    }
+
+    @Test
+    @WithMockUser(username = "admin", roles = "EMPLOYEE")
+    public void cakeLookupsUseTheSecondLevelCache() throws Exception {
+        Long id = cakeService.addCake(new Cake(null, "Tiramisu", "Mascarpone and coffee", null, null)).getId();
+        try {
+            cakeService.findById(id);
+            Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+            statistics.clear();
+
+            assertEquals("Tiramisu", cakeService.findById(id).orElseThrow().getName());
+            assertEquals(0, statistics.getPrepareStatementCount());
+
+            mvc.perform(MockMvcRequestBuilders.get("/server/cache/regions"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$[0].region").value(Cake.class.getName()))
+                    .andExpect(jsonPath("$[0].hits").value(1));
+        } finally {
+            cakeService.deleteById(id);
+        }
+    }
+
+    @Test
+    @WithMockUser(username = "admin", roles = "EMPLOYEE")
+    public void searchRanksNameMatchesFirstAndFollowsChanges() throws Exception {
+        List<Long> ids = cakeService.addCakes(List.of(
+                new Cake(null, "Lemon Meringue", "Sharp lemon curd", null, null),
+                new Cake(null, "Victoria Sponge", "Jam, cream and a hint of lemon", null, null),
+                new Cake(null, "Carrot Cake", "Walnuts and cream cheese", null, null)))
+                .stream().map(Cake::getId).toList();
+        try {
+            mvc.perform(MockMvcRequestBuilders.get("/server/cakes/search").param("q", "lemo"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.length()").value(2))
+                    .andExpect(jsonPath("$[0].name").value("Lemon Meringue"))
+                    .andExpect(jsonPath("$[1].name").value("Victoria Sponge"));
+            mvc.perform(MockMvcRequestBuilders.get("/server/cakes/search").param("q", "CREAM, wal"))
+                    .andExpect(jsonPath("$.length()").value(1))
+                    .andExpect(jsonPath("$[0].name").value("Carrot Cake"));
+
+            mvc.perform(MockMvcRequestBuilders.put("/server/cakes/" + ids.get(1))
+                            .content(m.writeValueAsString(new CakeDTO(null, "Victoria Sponge", "Jam and cream")))
+                            .contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isOk());
+            cakeService.deleteById(ids.get(0));
+            mvc.perform(MockMvcRequestBuilders.get("/server/cakes/search").param("q", "lemon"))
+                    .andExpect(jsonPath("$.length()").value(0));
+            mvc.perform(MockMvcRequestBuilders.get("/server/cakes/search").param("q", "cream").param("limit", "1"))
+                    .andExpect(jsonPath("$.length()").value(1));
+        } finally {
+            ids.forEach(cakeService::deleteById);
+        }
+    }
 
+    private List<CakeDTO> allCakes() throws Exception {
+        CursorPageDTO<CakeDTO> page = m.readValue(this.cakeController.getAllCakes(null, 50, new ServletWebRequest(new MockHttpServletRequest())).getBody(),
+                new TypeReference<CursorPageDTO<CakeDTO>>() {
+                });
+        return page.getItems();
+    }
 }
@@ -0,0 +1,80 @@
+package app;
+
+import app.model.Customer;
+import app.service.CustomerService;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Not transactional: the typeahead index only follows committed customers.
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = StoreIngApplication.class,
+        webEnvironment = SpringBootTest.WebEnvironment.MOCK)
+@AutoConfigureMockMvc
+@TestPropertySource(locations = "classpath:application-test.properties")
+@WithMockUser(username = "admin", roles = "EMPLOYEE")
+public class CustomerTypeaheadTest {
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private CustomerService customerService;
+
+    private final List<Long> ids = new ArrayList<>();
+
+    @After
+    public void tearDown() {
+        ids.forEach(customerService::deleteById);
+    }
+
+    @Test
+    public void typeaheadMatchesNameAndEmailPrefixesAndFollowsChanges() throws Exception {
+        ids.addAll(customerService.addCustomers(List.of(
+                customer("Ada", "Lovelace", "ada.lovelace@engine.org"),
+                customer("Adam", "Smith", "adam@wealth.org"),
+                customer("Grace", "Hopper", "amazing.grace@navy.mil"))).stream().map(Customer::getId).toList());
+
+        mvc.perform(MockMvcRequestBuilders.get("/server/customers/typeahead").param("q", "Ada"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].lastName").value("Lovelace"))
+                .andExpect(jsonPath("$[1].lastName").value("Smith"))
+                .andExpect(jsonPath("$[0].ordersList").doesNotExist());
+        mvc.perform(MockMvcRequestBuilders.get("/server/customers/typeahead").param("q", "ada s"))
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].email").value("adam@wealth.org"));
+        mvc.perform(MockMvcRequestBuilders.get("/server/customers/typeahead").param("q", "AMAZING.G"))
+                .andExpect(jsonPath("$[0].firstName").value("Grace"));
+
+        mvc.perform(MockMvcRequestBuilders.put("/server/customers/" + ids.get(1))
+                        .content("{\"firstName\":\"Adam\",\"lastName\":\"Ferguson\",\"email\":\"adam@wealth.org\","
+                                + "\"deliveryAddress\":\"High Street 1\"}")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+        customerService.deleteById(ids.remove(0));
+        mvc.perform(MockMvcRequestBuilders.get("/server/customers/typeahead").param("q", "ada").param("limit", "5"))
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].lastName").value("Ferguson"));
+    }
+
+    private static Customer customer(String firstName, String lastName, String email) {
+        return new Customer(null, firstName, lastName, email, "High Street 1", new ArrayList<>(), null, null);
+    }
+}
@@ -0,0 +1,353 @@
+package app;
+
+import app.enums.OrderStatus;
+import app.model.Cake;
+import app.model.Customer;
+import app.model.CustomerOrder;
+import app.repository.CakeRepository;
+import app.repository.CustomerOrderRepository;
+import app.repository.CustomerRepository;
+import app.service.CakeCatalogueCache;
+import com.jayway.jsonpath.JsonPath;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = StoreIngApplication.class,
+        webEnvironment = SpringBootTest.WebEnvironment.MOCK)
+@AutoConfigureMockMvc
+@TestPropertySource(locations = "classpath:application-test.properties")
+@Transactional
+public class CustomersTest {
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private CakeRepository cakeRepository;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private CustomerOrderRepository customerOrderRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private CakeCatalogueCache cakeCatalogueCache;
+
+    private Long customerId;
+
+    private Long cakeId;
+
+    private Long otherCakeId;
+
+    private Long orderId;
+
+    @Before
+    public void setUp() {
+        List<Cake> cakes = cakeRepository.saveAll(List.of(
+                new Cake(null, "Red Velvet", "Cream cheese frosting", null, null),
+                new Cake(null, "Carrot", "Walnuts and cinnamon", null, null)));
+        cakeId = cakes.get(0).getId();
+        otherCakeId = cakes.get(1).getId();
+        for (int c = 0; c < 5; c++) {
+            Customer customer = customerRepository.save(
+                    new Customer(null, "First" + c, "Last" + c, "customer" + c + "@mail.com", "Street " + c,
+                            new ArrayList<>(), null, null));
+            customerId = customer.getId();
+            for (int o = 0; o < 4; o++) {
+                orderId = customerOrderRepository.save(new CustomerOrder(null, "Order " + c + "-" + o, new Date(),
+                        OrderStatus.NEW, customer, cakes, null, null)).getId();
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    @WithMockUser(username = "admin", roles = "EMPLOYEE")
+    public void allCustomersLoadInFixedStatements() throws Exception {
+        // customers, their orders and the orders' cakes
+        SqlStatementCounter.assertAtMost(3, "GET /server/customers/all", () ->
+                mvc.perform(MockMvcRequestBuilders.get("/server/customers/all"))
+                        .andExpect(status().isOk())
+                        .andExpect(jsonPath("$.items[4].ordersList[3].cakesOrdered[1].name").exists()));
+    }
+
+    @Test
+    @WithMockUser(username = "admin", roles = "EMPLOYEE")
+    public void customerByIdLoadsInFixedStatements() throws Exception {
+        cakeCatalogueCache.getCatalogueVersion();
+        // the version, the customer, its orders and the orders' cakes
+        SqlStatementCounter.assertAtMost(4, "GET /server/customers/{id}", () ->
+                mvc.perform(MockMvcRequestBuilders.get("/server/customers/" + customerId))
+                        .andExpect(status().isOk())
+                        .andExpect(jsonPath("$.ordersList[3].cakesOrdered[1].name").exists()));
+    }
+
+    @Test
+    @WithMockUser(username = "admin", roles = "EMPLOYEE")
+    public void unchangedCustomerIsNotModified() throws Exception {
+        String etag = mvc.perform(MockMvcRequestBuilders.get("/server/customers/" + customerId))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        Statistics statistics = statistics();
+        mvc.perform(MockMvcRequestBuilders.get("/server/customers/" + customerId).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    @WithMockUser(username = "admin", roles = "EMPLOYEE")
+    public void ordersReferToExistingCustomerAndCakesById() throws Exception {
+        String order = "{\"name\":\"Birthday\",\"deliveryDate\":\"2030-01-01\",\"status\":\"NEW\","
+                + "\"customerId\":" + customerId + ",\"cakesOrdered\":[{\"id\":" + cakeId + "}]}";
+        String created = mvc.perform(MockMvcRequestBuilders.post("/server/customerOrders/new")
+                        .content(order).contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.customerId").value(customerId))
+                .andReturn().getResponse().getContentAsString();
+        Number id = JsonPath.read(created, "$.id");
+
+        mvc.perform(MockMvcRequestBuilders.put("/server/customerOrders/" + id)
+                        .content(order.replace("Birthday", "Wedding")).contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("Wedding"));
+    }
+
+    @Test
+    @WithMockUser(username = "admin", roles = "EMPLOYEE")
+    public void statusFollowsTheOrderLifeCycle() throws Exception {
+        String order = "{\"name\":\"Life cycle\",\"deliveryDate\":\"2032-02-01\",\"status\":\"%s\","
+                + "\"customerId\":" + customerId + ",\"cakesOrdered\":[{\"id\":" + cakeId + "}]}";
+        String created = mvc.perform(MockMvcRequestBuilders.post("/server/customerOrders/new")
+                        .content(order.formatted("NEW")).contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        Number id = JsonPath.read(created, "$.id");
+        String open = "$.items[?(@.name == 'Life cycle')]";
+
+        mvc.perform(MockMvcRequestBuilders.put("/server/customerOrders/" + id)
+                        .content(order.formatted("DELIVERED")).contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isConflict());
+        mvc.perform(MockMvcRequestBuilders.put("/server/customerOrders/" + id)
+                        .content(order.formatted("READY")).contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+        mvc.perform(MockMvcRequestBuilders.put("/server/customerOrders/" + id)
+                        .content(order.replace("\"status\":\"%s\",", "")).contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("READY"));
+        mvc.perform(MockMvcRequestBuilders.get("/server/customerOrders/open")
+                        .param("deliveredUntil", "2032-02-01").param("size", "500"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath(open).isNotEmpty());
+
+        mvc.perform(MockMvcRequestBuilders.put("/server/customerOrders/" + id)
+                        .content(order.formatted("DELIVERED")).contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+        mvc.perform(MockMvcRequestBuilders.put("/server/customerOrders/" + id)
+                        .content(order.formatted("NEW")).contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isConflict());
+        mvc.perform(MockMvcRequestBuilders.put("/server/customerOrders/" + id)
+                        .content(order.formatted("BAKED")).contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+        mvc.perform(MockMvcRequestBuilders.get("/server/customerOrders/open")
+                        .param("deliveredUntil", "2032-02-01").param("size", "500"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath(open).isEmpty());
+    }
+
+    @Test
+    @WithMockUser(username = "admin", roles = "EMPLOYEE")
+    public void patchesWriteOnlyTheChangedLinesAndStatus() throws Exception {
+        mvc.perform(MockMvcRequestBuilders.patch("/server/customerOrders/" + orderId + "/cakes")
+                        .content("{\"add\":[" + cakeId + "," + cakeId + "],\"remove\":[" + otherCakeId + "]}")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.cakesOrdered.length()").value(3))
+                .andExpect(jsonPath("$.cakesOrdered[2].id").value(cakeId));
+        mvc.perform(MockMvcRequestBuilders.patch("/server/customerOrders/" + orderId + "/cakes")
+                        .content("{\"remove\":[" + otherCakeId + "]}").contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+        mvc.perform(MockMvcRequestBuilders.patch("/server/customerOrders/" + orderId + "/cakes")
+                        .content("{\"add\":[" + (otherCakeId + 1000) + "]}").contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+        mvc.perform(MockMvcRequestBuilders.patch("/server/customerOrders/" + (orderId + 1000) + "/cakes")
+                        .content("{\"add\":[" + cakeId + "]}").contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNotFound());
+
+        SqlStatementCounter.assertAtMost(1, "PATCH /server/customerOrders/{id}/status", () ->
+                mvc.perform(MockMvcRequestBuilders.patch("/server/customerOrders/" + orderId + "/status")
+                                .content("{\"status\":\"READY\"}").contentType(MediaType.APPLICATION_JSON))
+                        .andExpect(status().isOk())
+                        .andExpect(jsonPath("$.status").value("READY")));
+        mvc.perform(MockMvcRequestBuilders.patch("/server/customerOrders/" + orderId + "/status")
+                        .content("{\"status\":\"NEW\"}").contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isConflict());
+        mvc.perform(MockMvcRequestBuilders.patch("/server/customerOrders/" + (orderId + 1000) + "/status")
+                        .content("{\"status\":\"READY\"}").contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNotFound());
+        mvc.perform(MockMvcRequestBuilders.get("/server/customerOrders/" + orderId))
+                .andExpect(jsonPath("$.status").value("READY"))
+                .andExpect(jsonPath("$.cakesOrdered.length()").value(3));
+    }
+
+    @Test
+    @WithMockUser(username = "admin", roles = "MANAGER")
+    public void bulkDeletesSendOneStatementPerTable() throws Exception {
+        Customer customer = customerRepository.getReferenceById(customerId);
+        List<Cake> cakes = cakeRepository.findAllById(List.of(cakeId, otherCakeId));
+        List<Long> old = customerOrderRepository.saveAll(List.of(
+                new CustomerOrder(null, "Old cancelled", day("2020-05-01"), OrderStatus.CANCELLED, customer, cakes, null, null),
+                new CustomerOrder(null, "Old cancelled too", day("2020-06-01"), OrderStatus.CANCELLED, customer, cakes, null, null),
+                new CustomerOrder(null, "Old delivered", day("2020-06-01"), OrderStatus.DELIVERED, customer, cakes, null, null)))
+                .stream().map(CustomerOrder::getId).toList();
+        entityManager.flush();
+        entityManager.clear();
+
+        // the cakes of the coming days, the order lines and the orders
+        SqlStatementCounter.assertAtMost(3, "DELETE /server/customerOrders", () ->
+                mvc.perform(MockMvcRequestBuilders.delete("/server/customerOrders")
+                                .param("status", "CANCELLED").param("deliveredBefore", "2021-01-01"))
+                        .andExpect(status().isOk()));
+        mvc.perform(MockMvcRequestBuilders.get("/server/customerOrders/" + old.get(0))).andExpect(status().isNotFound());
+        mvc.perform(MockMvcRequestBuilders.get("/server/customerOrders/" + old.get(1))).andExpect(status().isNotFound());
+        mvc.perform(MockMvcRequestBuilders.get("/server/customerOrders/" + old.get(2))).andExpect(status().isOk());
+        assertEquals(0L, ((Number) entityManager.createNativeQuery("select count(*) from order_cakes where cake_id in (:ids)")
+                .setParameter("ids", old.subList(0, 2)).getSingleResult()).longValue());
+
+        mvc.perform(MockMvcRequestBuilders.delete("/server/customerOrders").param("ids", String.valueOf(orderId)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.deleted").value(1));
+        mvc.perform(MockMvcRequestBuilders.delete("/server/customerOrders").param("status", "CANCELLED"))
+                .andExpect(status().isBadRequest());
+
+        // the customer's 4 remaining orders go with it, whatever their number
+        SqlStatementCounter.assertAtMost(4, "DELETE /server/customers", () ->
+                mvc.perform(MockMvcRequestBuilders.delete("/server/customers").param("ids", String.valueOf(customerId)))
+                        .andExpect(status().isOk())
+                        .andExpect(jsonPath("$.deleted").value(1)));
+        mvc.perform(MockMvcRequestBuilders.get("/server/customers/" + customerId)).andExpect(status().isNotFound());
+        mvc.perform(MockMvcRequestBuilders.get("/server/customerOrders/" + old.get(2))).andExpect(status().isNotFound());
+    }
+
+    @Test
+    @WithMockUser(username = "admin", roles = "EMPLOYEE")
+    public void searchFiltersOrdersByStatusDeliveryDateAndCustomer() throws Exception {
+        Customer customer = customerRepository.getReferenceById(customerId);
+        List<Cake> cakes = cakeRepository.findAllById(List.of(cakeId));
+        customerOrderRepository.saveAll(List.of(
+                new CustomerOrder(null, "Due", day("2031-03-01"), OrderStatus.READY, customer, cakes, null, null),
+                new CustomerOrder(null, "Due too", day("2031-03-02"), OrderStatus.READY, customer, cakes, null, null),
+                new CustomerOrder(null, "Still baking", day("2031-03-01"), OrderStatus.NEW, customer, cakes, null, null),
+                new CustomerOrder(null, "Later", day("2031-03-03"), OrderStatus.READY, customer, cakes, null, null)));
+        entityManager.flush();
+        entityManager.clear();
+
+        mvc.perform(MockMvcRequestBuilders.get("/server/customerOrders/search")
+                        .param("status", "READY").param("customerId", String.valueOf(customerId))
+                        .param("deliveredFrom", "2031-03-01").param("deliveredUntil", "2031-03-02")
+                        .param("sort", "deliveryDate,desc"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(2))
+                .andExpect(jsonPath("$.items[0].name").value("Due too"))
+                .andExpect(jsonPath("$.items[1].name").value("Due"))
+                .andExpect(jsonPath("$.items[1].cakesOrdered[0].id").value(cakeId))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+        String first = mvc.perform(MockMvcRequestBuilders.get("/server/customerOrders/search")
+                        .param("deliveredFrom", "2031-03-01").param("deliveredUntil", "2031-03-03").param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].name").value("Due"))
+                .andExpect(jsonPath("$.items[1].name").value("Still baking"))
+                .andReturn().getResponse().getContentAsString();
+        mvc.perform(MockMvcRequestBuilders.get("/server/customerOrders/search")
+                        .param("deliveredFrom", "2031-03-01").param("deliveredUntil", "2031-03-03").param("size", "2")
+                        .param("after", JsonPath.<String>read(first, "$.nextCursor")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(2))
+                .andExpect(jsonPath("$.items[0].name").value("Due too"))
+                .andExpect(jsonPath("$.items[1].name").value("Later"))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+
+        String byName = mvc.perform(MockMvcRequestBuilders.get("/server/customerOrders/search")
+                        .param("customerId", String.valueOf(customerId)).param("status", "READY")
+                        .param("sort", "name,desc").param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].name").value("Later"))
+                .andReturn().getResponse().getContentAsString();
+        String cursor = JsonPath.read(byName, "$.nextCursor");
+        mvc.perform(MockMvcRequestBuilders.get("/server/customerOrders/search")
+                        .param("customerId", String.valueOf(customerId)).param("status", "READY")
+                        .param("sort", "name,desc").param("size", "1").param("after", cursor))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].name").value("Due too"));
+
+        mvc.perform(MockMvcRequestBuilders.get("/server/customerOrders/search").param("sort", "cakesOrdered"))
+                .andExpect(status().isBadRequest());
+        mvc.perform(MockMvcRequestBuilders.get("/server/customerOrders/search").param("page", "1"))
+                .andExpect(status().isBadRequest());
+        mvc.perform(MockMvcRequestBuilders.get("/server/customerOrders/search").param("after", cursor))
+                .andExpect(status().isBadRequest());
+
+        List<?> indexes = entityManager.createNativeQuery("select index_name from information_schema.indexes "
+                + "where table_name = 'CUSTOMER_ORDER'").getResultList();
+        assertTrue(indexes.contains("CUSTOMER_ORDER_DELIVERY_DATE_STATUS_IDX"), indexes.toString());
+        assertTrue(indexes.contains("CUSTOMER_ORDER_CUSTOMER_ID_DELIVERY_DATE_IDX"), indexes.toString());
+    }
+
+    @Test
+    @WithMockUser(username = "admin", roles = "EMPLOYEE")
+    public void customerReadsDoNotLoadEntities() throws Exception {
+        Statistics statistics = statistics();
+        mvc.perform(MockMvcRequestBuilders.get("/server/customers/all")).andExpect(status().isOk());
+        mvc.perform(MockMvcRequestBuilders.get("/server/customers/" + customerId)).andExpect(status().isOk());
+
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertEquals(0, statistics.getCollectionLoadCount());
+    }
+
+    private static Date day(String day) {
+        return Date.from(LocalDate.parse(day).atStartOfDay(ZoneOffset.UTC).toInstant());
+    }
+
+    private Statistics statistics() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        return statistics;
+    }
+}
@@ -0,0 +1,362 @@
+package app;
+
+import app.dto.CakeDTO;
+import app.dto.CustomerOrderDTO;
+import app.enums.OrderStatus;
+import app.enums.RoleType;
+import app.model.Cake;
+import app.model.Customer;
+import app.model.CustomerOrder;
+import app.model.Role;
+import app.model.User;
+import app.repository.RoleRepository;
+import app.repository.UserRepository;
+import app.service.CakeService;
+import app.service.CustomerOrderService;
+import app.service.CustomerService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.junit.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * End-to-end load test. Boots the application on a random port against H2 in PostgreSQL mode
+ * (or the database of -Dload.jdbcUrl), seeds a dataset and lets virtual users sign in and then
+ * browse the catalogue, read, create and update orders with their own JWTs. Latencies are
+ * recorded per endpoint in HDR histograms; the percentile distributions are written to
+ * target/load-test and the summary is compared with the baseline file.
+ * <p>
+ * Run with {@code mvn test -Pbenchmark -Dtest=LoadBenchmark}, see the load.* properties below.
+ * The first run, or a run with -Dload.updateBaseline=true, stores the baseline.
+ */
+public class LoadBenchmark {
+
+    private static final int USERS = Integer.getInteger("load.users", 50);
+    private static final int WARMUP_SECONDS = Integer.getInteger("load.warmupSeconds", 10);
+    private static final int SECONDS = Integer.getInteger("load.seconds", 30);
+    private static final int ACCOUNTS = Integer.getInteger("load.accounts", 20);
+    private static final int CAKES = Integer.getInteger("load.cakes", 200);
+    private static final int CUSTOMERS = Integer.getInteger("load.customers", 500);
+    private static final int ORDERS = Integer.getInteger("load.orders", 5000);
+    private static final String JDBC_URL = System.getProperty("load.jdbcUrl",
+            "jdbc:h2:mem:load;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH");
+    private static final Path BASELINE = Path.of(System.getProperty("load.baseline", "src/test/load/baseline.properties"));
+    private static final boolean UPDATE_BASELINE = Boolean.getBoolean("load.updateBaseline");
+    // allowed slowdown against the baseline before the run fails
+    private static final double TOLERANCE = Double.parseDouble(System.getProperty("load.tolerance", "0.25"));
+
+    private static final String PASSWORD = "load-password";
+
+    private enum Endpoint {
+        SIGNIN("POST /api/auth/signin", 3),
+        CATALOGUE("GET /server/cakes/all", 45),
+        CAKE("GET /server/cakes/{id}", 15),
+        ORDER("GET /server/customerOrders/{id}", 12),
+        CREATE_ORDER("POST /server/customerOrders/new", 15),
+        UPDATE_ORDER("PUT /server/customerOrders/{id}", 10);
+
+        final String label;
+        final int weight;
+
+        Endpoint(String label, int weight) {
+            this.label = label;
+            this.weight = weight;
+        }
+    }
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    private final Map<Endpoint, Histogram> histograms = new EnumMap<>(Endpoint.class);
+    private final Map<Endpoint, AtomicLong> errors = new EnumMap<>(Endpoint.class);
+    // sign-ins the bounded hashing pool turned away with 503, retried and not counted as errors
+    private final Map<Endpoint, AtomicLong> rejected = new EnumMap<>(Endpoint.class);
+
+    private String baseUrl;
+    private List<Long> cakeIds;
+    private List<Long> customerIds;
+    private List<Long> orderIds;
+
+    @Test
+    public void mixedLoad() throws Exception {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(StoreIngApplication.class).run(
+                "--server.port=0",
+                "--spring.datasource.url=" + JDBC_URL,
+                "--spring.datasource.driver-class-name=" + (JDBC_URL.startsWith("jdbc:h2") ? "org.h2.Driver" : "org.postgresql.Driver"),
+                "--spring.datasource.username=" + System.getProperty("load.jdbcUser", "sa"),
+                "--spring.datasource.password=" + System.getProperty("load.jdbcPassword", ""),
+                "--spring.jpa.database-platform=" + (JDBC_URL.startsWith("jdbc:h2") ? "org.hibernate.dialect.H2Dialect" : "org.hibernate.dialect.PostgreSQLDialect"),
+                "--spring.jpa.hibernate.ddl-auto=update",
+                "--bezkoder.app.storefrontEnabled=false")) {
+            baseUrl = "http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort();
+            seed(context);
+
+            run(WARMUP_SECONDS);
+            for (Endpoint endpoint : Endpoint.values()) {
+                histograms.put(endpoint, new ConcurrentHistogram(TimeUnit.MINUTES.toMicros(1), 3));
+                errors.put(endpoint, new AtomicLong());
+                rejected.put(endpoint, new AtomicLong());
+            }
+            run(SECONDS);
+        }
+        Properties result = report();
+        compareWithBaseline(result);
+    }
+
+    private void seed(ConfigurableApplicationContext context) {
+        RoleRepository roleRepository = context.getBean(RoleRepository.class);
+        for (RoleType roleType : RoleType.values()) {
+            if (roleRepository.findByName(roleType).isEmpty()) {
+                roleRepository.save(new Role(null, roleType));
+            }
+        }
+        Role employee = roleRepository.findByName(RoleType.ROLE_EMPLOYEE).orElseThrow();
+        String hash = context.getBean(PasswordEncoder.class).encode(PASSWORD);
+        UserRepository userRepository = context.getBean(UserRepository.class);
+        for (int i = 0; i < ACCOUNTS; i++) {
+            if (!userRepository.existsByUsername("load" + i)) {
+                User user = new User("load" + i, "load" + i + "@store.com", hash);
+                user.setRoles(Set.of(employee));
+                userRepository.save(user);
+            }
+        }
+
+        List<Cake> cakes = new ArrayList<>();
+        for (int i = 0; i < CAKES; i++) {
+            cakes.add(new Cake(null, "Load cake " + i, "Layers of sponge and cream, recipe " + i, null, null));
+        }
+        cakes = context.getBean(CakeService.class).addCakes(cakes);
+        cakeIds = cakes.stream().map(Cake::getId).toList();
+
+        List<Customer> customers = new ArrayList<>();
+        for (int i = 0; i < CUSTOMERS; i++) {
+            customers.add(new Customer(null, "First" + i, "Last" + i, "load-customer" + i + "@store.com",
+                    "Street " + i, new ArrayList<>(), null, null));
+        }
+        customers = context.getBean(CustomerService.class).addCustomers(customers);
+        customerIds = customers.stream().map(Customer::getId).toList();
+
+        List<CustomerOrder> orders = new ArrayList<>();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < ORDERS; i++) {
+            orders.add(new CustomerOrder(null, "Load order " + i, new Date(), OrderStatus.NEW,
+                    customers.get(random.nextInt(customers.size())),
+                    List.of(cakes.get(random.nextInt(cakes.size())), cakes.get(random.nextInt(cakes.size()))), null, null));
+        }
+        orderIds = context.getBean(CustomerOrderService.class).addCustomerOrders(orders).stream()
+                .map(CustomerOrder::getId).toList();
+    }
+
+    private void run(int seconds) throws Exception {
+        long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        ExecutorService executor = Executors.newFixedThreadPool(USERS);
+        try {
+            List<Future<?>> users = new ArrayList<>();
+            for (int u = 0; u < USERS; u++) {
+                String username = "load" + (u % ACCOUNTS);
+                users.add(executor.submit(() -> {
+                    String token = signIn(username);
+                    while (System.nanoTime() < end) {
+                        Endpoint endpoint = pick();
+                        if (endpoint == Endpoint.SIGNIN) {
+                            token = signIn(username);
+                        } else {
+                            call(endpoint, token);
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> user : users) {
+                user.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static Endpoint pick() {
+        int dice = ThreadLocalRandom.current().nextInt(100);
+        for (Endpoint endpoint : Endpoint.values()) {
+            dice -= endpoint.weight;
+            if (dice < 0) {
+                return endpoint;
+            }
+        }
+        return Endpoint.CATALOGUE;
+    }
+
+    /**
+     * Signs in, waiting as told by Retry-After while the password hashing pool is saturated, as all
+     * the users sign in at once when the run starts.
+     */
+    private String signIn(String username) throws Exception {
+        String body = "{\"username\":\"" + username + "\",\"password\":\"" + PASSWORD + "\"}";
+        while (true) {
+            HttpResponse<String> response = send(Endpoint.SIGNIN, json(HttpRequest.newBuilder(uri("/api/auth/signin")), body, "POST"));
+            if (response.statusCode() == 200) {
+                return objectMapper.readTree(response.body()).get("accessToken").asText();
+            }
+            if (response.statusCode() != 503) {
+                throw new IllegalStateException("Sign-in of " + username + " failed with " + response.statusCode());
+            }
+            long retryAfter = response.headers().firstValueAsLong("Retry-After").orElse(1);
+            // spread the retries so they do not come back as one burst
+            Thread.sleep(TimeUnit.SECONDS.toMillis(retryAfter) + ThreadLocalRandom.current().nextLong(1000));
+        }
+    }
+
+    private void call(Endpoint endpoint, String token) throws Exception {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Long orderId = orderIds.get(random.nextInt(orderIds.size()));
+        HttpRequest.Builder request = switch (endpoint) {
+            case CATALOGUE -> {
+                // a third of the browsing starts at the first page, the rest somewhere in the catalogue
+                String after = random.nextInt(3) == 0 ? "" : "after=" + cakeIds.get(random.nextInt(cakeIds.size())) + "&";
+                yield HttpRequest.newBuilder(uri("/server/cakes/all?" + after + "limit=50")).GET();
+            }
+            case CAKE -> HttpRequest.newBuilder(uri("/server/cakes/" + cakeIds.get(random.nextInt(cakeIds.size())))).GET();
+            case ORDER -> HttpRequest.newBuilder(uri("/server/customerOrders/" + orderId)).GET();
+            case CREATE_ORDER -> json(HttpRequest.newBuilder(uri("/server/customerOrders/new")), order(), "POST");
+            case UPDATE_ORDER -> json(HttpRequest.newBuilder(uri("/server/customerOrders/" + orderId)), order(), "PUT");
+            case SIGNIN -> throw new IllegalArgumentException("Sign-in is not a call with a token");
+        };
+        send(endpoint, request.header("Authorization", "Bearer " + token));
+    }
+
+    private String order() throws IOException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        CustomerOrderDTO order = new CustomerOrderDTO(null, "Load order", new Date(), OrderStatus.NEW,
+                customerIds.get(random.nextInt(customerIds.size())));
+        CakeDTO cake = new CakeDTO();
+        cake.setId(cakeIds.get(random.nextInt(cakeIds.size())));
+        order.getCakesOrdered().add(cake);
+        return objectMapper.writeValueAsString(order);
+    }
+
+    private HttpResponse<String> send(Endpoint endpoint, HttpRequest.Builder request) throws Exception {
+        long start = System.nanoTime();
+        HttpResponse<String> response = http.send(request.build(), HttpResponse.BodyHandlers.ofString());
+        long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start);
+        Histogram histogram = histograms.get(endpoint);
+        if (histogram != null) {
+            if (response.statusCode() == 503) {
+                // turned away without doing the work, its latency would flatter the percentiles
+                rejected.get(endpoint).incrementAndGet();
+                return response;
+            }
+            histogram.recordValue(Math.min(micros, histogram.getHighestTrackableValue()));
+            if (response.statusCode() >= 300) {
+                errors.get(endpoint).incrementAndGet();
+            }
+        }
+        return response;
+    }
+
+    private static HttpRequest.Builder json(HttpRequest.Builder request, String body, String method) {
+        return request.header("Content-Type", "application/json").method(method, HttpRequest.BodyPublishers.ofString(body));
+    }
+
+    private URI uri(String path) {
+        return URI.create(baseUrl + path);
+    }
+
+    private Properties report() throws IOException {
+        Path directory = Files.createDirectories(Path.of("target", "load-test"));
+        Properties result = new Properties();
+        System.out.printf("%d users for %d s after %d s of warm-up%n", USERS, SECONDS, WARMUP_SECONDS);
+        System.out.printf("%-34s %9s %9s %9s %9s %9s %9s %7s %9s%n", "endpoint", "requests", "req/s", "p50 ms", "p95 ms",
+                "p99 ms", "max ms", "errors", "rejected");
+        for (Endpoint endpoint : Endpoint.values()) {
+            Histogram histogram = histograms.get(endpoint);
+            double throughput = histogram.getTotalCount() / (double) SECONDS;
+            System.out.printf("%-34s %9d %9.1f %9.2f %9.2f %9.2f %9.2f %7d %9d%n", endpoint.label, histogram.getTotalCount(),
+                    throughput, millis(histogram, 50), millis(histogram, 95), millis(histogram, 99),
+                    histogram.getMaxValue() / 1000.0, errors.get(endpoint).get(), rejected.get(endpoint).get());
+            result.setProperty(endpoint.name() + ".throughput", String.format(Locale.ROOT, "%.1f", throughput));
+            result.setProperty(endpoint.name() + ".p99", String.format(Locale.ROOT, "%.2f", millis(histogram, 99)));
+            try (PrintStream out = new PrintStream(Files.newOutputStream(directory.resolve(endpoint.name().toLowerCase(Locale.ROOT) + ".hgrm")))) {
+                histogram.outputPercentileDistribution(out, 1000.0);
+            }
+        }
+        try (Writer out = Files.newBufferedWriter(directory.resolve("result.properties"))) {
+            result.store(out, "throughput in requests per second, p99 in milliseconds");
+        }
+        for (Endpoint endpoint : Endpoint.values()) {
+            assertTrue(errors.get(endpoint).get() == 0, endpoint.label + " answered with errors");
+        }
+        return result;
+    }
+
+    private static double millis(Histogram histogram, double percentile) {
+        return histogram.getValueAtPercentile(percentile) / 1000.0;
+    }
+
+    private void compareWithBaseline(Properties result) throws IOException {
+        if (UPDATE_BASELINE || !Files.exists(BASELINE)) {
+            Files.createDirectories(BASELINE.getParent());
+            try (Writer out = Files.newBufferedWriter(BASELINE)) {
+                result.store(out, USERS + " users, " + SECONDS + " s; throughput in requests per second, p99 in milliseconds");
+            }
+            System.out.println("Stored the baseline in " + BASELINE);
+            return;
+        }
+        Properties baseline = new Properties();
+        try (Reader in = Files.newBufferedReader(BASELINE)) {
+            baseline.load(in);
+        }
+        List<String> regressions = new ArrayList<>();
+        for (Endpoint endpoint : Endpoint.values()) {
+            String p99 = baseline.getProperty(endpoint.name() + ".p99");
+            String throughput = baseline.getProperty(endpoint.name() + ".throughput");
+            if (p99 == null || throughput == null) {
+                continue;
+            }
+            double p99Now = Double.parseDouble(result.getProperty(endpoint.name() + ".p99"));
+            double throughputNow = Double.parseDouble(result.getProperty(endpoint.name() + ".throughput"));
+            System.out.printf("%-34s p99 %+6.1f%%  req/s %+6.1f%%%n", endpoint.label,
+                    change(p99Now, Double.parseDouble(p99)), change(throughputNow, Double.parseDouble(throughput)));
+            if (p99Now > Double.parseDouble(p99) * (1 + TOLERANCE)) {
+                regressions.add(endpoint.label + " p99 " + p99Now + " ms, baseline " + p99 + " ms");
+            }
+            if (throughputNow < Double.parseDouble(throughput) * (1 - TOLERANCE)) {
+                regressions.add(endpoint.label + " " + throughputNow + " req/s, baseline " + throughput + " req/s");
+            }
+        }
+        assertTrue(regressions.isEmpty(), "Slower than the baseline: " + regressions);
+    }
+
+    private static double change(double now, double baseline) {
+        return baseline == 0 ? 0 : (now - baseline) * 100 / baseline;
+    }
+}
@@ -0,0 +1,68 @@
+package app;
+
+import app.security.jwt.JwtUtils;
+import app.service.userService.UserDetailsImpl;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = StoreIngApplication.class,
+        webEnvironment = SpringBootTest.WebEnvironment.MOCK)
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+@TestPropertySource(locations = "classpath:application-test.properties")
+public class MetricsTest {
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private JwtUtils jwtUtils;
+
+    @Test
+    public void prometheusEndpointExposesRequestPathTimings() throws Exception {
+        UserDetailsImpl user = new UserDetailsImpl(1L, "metrics", "metrics@store.com", "",
+                List.of(new SimpleGrantedAuthority("ROLE_EMPLOYEE")));
+        String bearer = "Bearer " + jwtUtils.generateJwtToken(
+                new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+
+        mvc.perform(MockMvcRequestBuilders.get("/server/cakes/all").header(HttpHeaders.AUTHORIZATION, bearer))
+                .andExpect(status().isOk());
+        mvc.perform(MockMvcRequestBuilders.get("/server/customerOrders/all").header(HttpHeaders.AUTHORIZATION, bearer))
+                .andExpect(status().isOk());
+
+        String scrape = mvc.perform(MockMvcRequestBuilders.get("/actuator/prometheus")
+                        .header(HttpHeaders.AUTHORIZATION, bearer))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        for (String metric : List.of(
+                "http_server_requests_seconds_bucket{error=\"none\",exception=\"none\",method=\"GET\",outcome=\"SUCCESS\",status=\"200\",uri=\"/server/cakes/all\"",
+                "method=\"findDTOsByIdGreaterThan\",repository=\"CustomerOrderRepository\"",
+                "auth_token_filter_seconds_count{stage=\"parse\"}",
+                "auth_token_filter_seconds_count{stage=\"verify\"}",
+                "auth_token_filter_seconds_count{stage=\"user-load\"}",
+                "hikaricp_connections_pending",
+                "hibernate_statements_total",
+                "hibernate_entities_loads_total",
+                "hibernate_second_level_cache_requests_total",
+                "cache_gets_total{cache=\"cakeCatalogue\"")) {
+            assertTrue(scrape.contains(metric), metric);
+        }
+    }
+}
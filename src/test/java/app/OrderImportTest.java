@@ -0,0 +1,149 @@
+package app;
+
+import app.dto.CustomerOrderDTO;
+import app.model.Cake;
+import app.model.Customer;
+import app.repository.CakeRepository;
+import app.repository.CustomerOrderRepository;
+import app.repository.CustomerRepository;
+import app.service.CustomerOrderService;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TimeZone;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = StoreIngApplication.class,
+        webEnvironment = SpringBootTest.WebEnvironment.MOCK)
+@AutoConfigureMockMvc
+@TestPropertySource(locations = "classpath:application-test.properties")
+@Transactional
+public class OrderImportTest {
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private CakeRepository cakeRepository;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private CustomerOrderRepository customerOrderRepository;
+
+    @Autowired
+    private CustomerOrderService customerOrderService;
+
+    private long ordersBefore;
+
+    @Before
+    public void setUp() {
+        cakeRepository.saveAll(List.of(
+                new Cake(null, "Import Lemon", "Lemon curd", null, null),
+                new Cake(null, "Import Opera", "Coffee and chocolate", null, null)));
+        customerRepository.save(new Customer(null, "Ann", "Known", "known@import.com", "Main Street 1", new ArrayList<>(), null, null));
+        ordersBefore = customerOrderRepository.count();
+    }
+
+    @Test
+    @WithMockUser(username = "admin", roles = "MANAGER")
+    public void csvImport() throws Exception {
+        String csv = """
+                customerEmail,customerFirstName,customerLastName,customerDeliveryAddress,name,deliveryDate,status,cakes
+                known@import.com,,,,Birthday,2024-05-01,NEW,Import Lemon|Import Opera
+                new@import.com,Bob,New,"Baker Street 2, London",Wedding,2024-05-02,NEW,Import Opera
+                new@import.com,,,,"Anniversary \"\"25\"\"",2024-05-03,NEW,
+                other@import.com,,,,Missing customer data,2024-05-04,NEW,Import Lemon
+                known@import.com,,,,Unknown cake,2024-05-05,NEW,Import Sponge
+                known@import.com,,,,Bad date,tomorrow,NEW,Import Lemon
+                known@import.com,,,,Bad status,2024-05-06,BAKED,Import Lemon
+                """;
+        mvc.perform(MockMvcRequestBuilders.post("/server/customerOrders/import")
+                        .contentType("text/csv")
+                        .content(csv))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(3))
+                .andExpect(jsonPath("$.customersCreated").value(1))
+                .andExpect(jsonPath("$.skipped").value(4));
+
+        assertEquals(ordersBefore + 3, customerOrderRepository.count());
+        Long customerId = customerRepository.findByEmailInOrderById(List.of("new@import.com")).get(0).getId();
+        List<CustomerOrderDTO> orders = customerOrderRepository.fillCakesOrdered(
+                customerOrderRepository.findDTOsByCustomerIdIn(List.of(customerId)));
+        assertEquals(2, orders.size());
+        assertEquals("Import Opera", orders.get(0).getCakesOrdered().get(0).getName());
+        assertEquals("Anniversary \"25\"", orders.get(1).getName());
+    }
+
+    @Test
+    @WithMockUser(username = "admin", roles = "MANAGER")
+    public void ndjsonImport() throws Exception {
+        String ndjson = """
+                {"customerEmail":"known@import.com","name":"Party","deliveryDate":"2024-06-01","status":"NEW","cakes":["Import Lemon","Import Lemon"]}
+                {"customerEmail":"known@import.com","name":
+                {"customerEmail":"known@import.com","name":"No cakes","deliveryDate":"2024-06-02","status":"NEW","cakes":null}
+                null
+                """;
+        mvc.perform(MockMvcRequestBuilders.post("/server/customerOrders/import")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(ndjson))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(1))
+                .andExpect(jsonPath("$.skipped").value(3))
+                .andExpect(jsonPath("$.errors[1]").value("line 4: invalid JSON: not an object"))
+                .andExpect(jsonPath("$.errors[2]").value("line 3: cakes is required"));
+
+        Long orderId = customerOrderRepository.findDTOsByCustomerIdIn(
+                List.of(customerRepository.findByEmailInOrderById(List.of("known@import.com")).get(0).getId())).get(0).getId();
+        assertEquals(2, customerOrderService.findDTOById(orderId).orElseThrow().getCakesOrdered().size());
+    }
+
+    @Test
+    @WithMockUser(username = "admin", roles = "MANAGER")
+    public void deliveryDatesAreUtcDaysWhateverTheJvmZone() throws Exception {
+        TimeZone zone = TimeZone.getDefault();
+        TimeZone.setDefault(TimeZone.getTimeZone("Asia/Tokyo"));
+        try {
+            mvc.perform(MockMvcRequestBuilders.post("/server/customerOrders/import")
+                            .contentType("text/csv")
+                            .content("customerEmail,name,deliveryDate,status,cakes\n"
+                                    + "known@import.com,Tokyo,2024-07-01,NEW,Import Opera\n"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.imported").value(1));
+
+            Long orderId = customerOrderRepository.findDTOsByCustomerIdIn(
+                    List.of(customerRepository.findByEmailInOrderById(List.of("known@import.com")).get(0).getId())).get(0).getId();
+            assertEquals(Instant.parse("2024-07-01T00:00:00Z"),
+                    customerOrderService.findDTOById(orderId).orElseThrow().getDeliveryDate().toInstant());
+        } finally {
+            TimeZone.setDefault(zone);
+        }
+    }
+
+    @Test
+    @WithMockUser(username = "admin", roles = "EMPLOYEE")
+    public void importRequiresManager() throws Exception {
+        mvc.perform(MockMvcRequestBuilders.post("/server/customerOrders/import")
+                        .contentType("text/csv")
+                        .content("customerEmail,name,deliveryDate,status\n"))
+                .andExpect(status().isForbidden());
+    }
+}
@@ -0,0 +1,66 @@
+package app;
+
+import app.config.OrderStatusMigration;
+import app.model.Customer;
+import app.repository.CustomerRepository;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = StoreIngApplication.class,
+        webEnvironment = SpringBootTest.WebEnvironment.MOCK)
+@TestPropertySource(locations = "classpath:application-test.properties")
+public class OrderStatusMigrationTest {
+    @Autowired
+    private OrderStatusMigration orderStatusMigration;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void legacyStatusesAreMappedAndUnknownOnesStopTheStart() {
+        // H2 gets an enum column, the databases that predate OrderStatus have a free-form one
+        jdbcTemplate.execute("alter table customer_order alter column status varchar(255)");
+        Customer customer = customerRepository.save(new Customer(null, "Legacy", "Status", "legacy.status@mail.com",
+                "Old Street 1", new ArrayList<>(), null, null));
+        try {
+            insertOrder(-1, "pending", customer);
+            insertOrder(-2, "Delivered", customer);
+            insertOrder(-3, "in progress", customer);
+
+            orderStatusMigration.migrate();
+            assertEquals(List.of("NEW", "DELIVERED", "IN_PROGRESS"), jdbcTemplate.queryForList(
+                    "select status from customer_order where id in (-1, -2, -3) order by id desc", String.class));
+            orderStatusMigration.migrate();
+
+            insertOrder(-4, "lost", customer);
+            IllegalStateException e = assertThrows(IllegalStateException.class, orderStatusMigration::migrate);
+            assertTrue(e.getMessage().contains("[lost]"), e.getMessage());
+        } finally {
+            jdbcTemplate.update("delete from customer_order where id < 0");
+            customerRepository.deleteById(customer.getId());
+            jdbcTemplate.execute("alter table customer_order alter column status "
+                    + "enum('CANCELLED', 'DELIVERED', 'IN_PROGRESS', 'NEW', 'READY')");
+        }
+    }
+
+    private void insertOrder(long id, String status, Customer customer) {
+        jdbcTemplate.update("insert into customer_order (id, name, delivery_date, status, customer_id, version)"
+                + " values (?, 'Legacy order', current_timestamp, ?, ?, 0)", id, status, customer.getId());
+    }
+}
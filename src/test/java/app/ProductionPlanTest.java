@@ -0,0 +1,215 @@
+package app;
+
+import app.enums.OrderStatus;
+import app.model.Cake;
+import app.model.Customer;
+import app.model.CustomerOrder;
+import app.repository.CakeRepository;
+import app.repository.CustomerOrderRepository;
+import app.repository.CustomerRepository;
+import com.jayway.jsonpath.JsonPath;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Not transactional: the production plan only follows committed orders.
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = StoreIngApplication.class,
+        webEnvironment = SpringBootTest.WebEnvironment.MOCK)
+@AutoConfigureMockMvc
+@TestPropertySource(locations = "classpath:application-test.properties")
+@WithMockUser(username = "admin", roles = {"EMPLOYEE", "MANAGER"})
+public class ProductionPlanTest {
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private CakeRepository cakeRepository;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private CustomerOrderRepository customerOrderRepository;
+
+    private Cake sponge;
+
+    private Cake cheesecake;
+
+    private Customer customer;
+
+    @Before
+    public void setUp() {
+        sponge = cakeRepository.save(new Cake(null, "Victoria Sponge", "Jam and cream", null, null));
+        cheesecake = cakeRepository.save(new Cake(null, "Cheesecake", "Baked", null, null));
+        customer = customerRepository.save(new Customer(null, "Plan", "Ner", "planner@mail.com", "Oven Street 1",
+                new ArrayList<>(), null, null));
+    }
+
+    @After
+    public void tearDown() {
+        customerOrderRepository.deleteAll(customerOrderRepository.findAll().stream()
+                .filter(order -> order.getCustomer().getId().equals(customer.getId())).toList());
+        customerRepository.deleteById(customer.getId());
+        cakeRepository.deleteAllById(List.of(sponge.getId(), cheesecake.getId()));
+    }
+
+    @Test
+    public void planFollowsOrderChanges() throws Exception {
+        plan().andExpect(jsonPath("$.length()").value(0));
+
+        String created = mvc.perform(MockMvcRequestBuilders.post("/server/customerOrders/new")
+                        .content(order("2041-05-01", sponge, sponge, cheesecake)).contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        Number id = JsonPath.read(created, "$.id");
+        plan().andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].deliveryDate").value("2041-05-01"))
+                .andExpect(jsonPath("$[0].cakes[?(@.name == 'Victoria Sponge')].quantity").value(2))
+                .andExpect(jsonPath("$[0].cakes[?(@.name == 'Cheesecake')].quantity").value(1));
+
+        mvc.perform(MockMvcRequestBuilders.put("/server/customerOrders/" + id)
+                        .content(order("2041-05-02", cheesecake)).contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+        plan().andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].deliveryDate").value("2041-05-02"))
+                .andExpect(jsonPath("$[0].cakes.length()").value(1))
+                .andExpect(jsonPath("$[0].cakes[0].quantity").value(1));
+
+        mvc.perform(MockMvcRequestBuilders.delete("/server/customerOrders/" + id)).andExpect(status().isOk());
+        plan().andExpect(jsonPath("$.length()").value(0));
+    }
+
+    @Test
+    public void cancelledOrdersLeaveThePlan() throws Exception {
+        Number patched = JsonPath.read(mvc.perform(MockMvcRequestBuilders.post("/server/customerOrders/new")
+                        .content(order("2041-05-01", sponge, sponge)).contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString(), "$.id");
+        Number put = JsonPath.read(mvc.perform(MockMvcRequestBuilders.post("/server/customerOrders/new")
+                        .content(order("2041-05-02", cheesecake)).contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString(), "$.id");
+        plan().andExpect(jsonPath("$.length()").value(2));
+
+        mvc.perform(MockMvcRequestBuilders.patch("/server/customerOrders/" + patched + "/status")
+                        .content("{\"status\":\"CANCELLED\"}").contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+        mvc.perform(MockMvcRequestBuilders.patch("/server/customerOrders/" + patched + "/status")
+                        .content("{\"status\":\"CANCELLED\"}").contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+        mvc.perform(MockMvcRequestBuilders.put("/server/customerOrders/" + put)
+                        .content(order("2041-05-02", cheesecake).replace("NEW", "CANCELLED"))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+        plan().andExpect(jsonPath("$.length()").value(0));
+
+        // the lines of a cancelled order and its deletion leave the plan alone
+        mvc.perform(MockMvcRequestBuilders.patch("/server/customerOrders/" + patched + "/cakes")
+                        .content("{\"add\":[" + cheesecake.getId() + "]}").contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+        mvc.perform(MockMvcRequestBuilders.delete("/server/customerOrders/" + put)).andExpect(status().isOk());
+        plan().andExpect(jsonPath("$.length()").value(0));
+        mvc.perform(MockMvcRequestBuilders.post("/server/productionPlan/rebuild")).andExpect(status().isOk());
+        plan().andExpect(jsonPath("$.length()").value(0));
+    }
+
+    @Test
+    public void concurrentLinePatchesCountTheCommittedLines() throws Exception {
+        String created = mvc.perform(MockMvcRequestBuilders.post("/server/customerOrders/new")
+                        .content(order("2041-05-01", sponge, sponge, cheesecake)).contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        Number id = JsonPath.read(created, "$.id");
+
+        // two callers take one sponge off the order each, at the same time
+        CyclicBarrier start = new CyclicBarrier(2);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            List<Future<Integer>> patches = new ArrayList<>();
+            for (int i = 0; i < 2; i++) {
+                patches.add(executor.submit(() -> {
+                    start.await();
+                    return mvc.perform(MockMvcRequestBuilders.patch("/server/customerOrders/" + id + "/cakes")
+                                    .with(user("admin").roles("EMPLOYEE"))
+                                    .content("{\"remove\":[" + sponge.getId() + "]}").contentType(MediaType.APPLICATION_JSON))
+                            .andReturn().getResponse().getStatus();
+                }));
+            }
+            for (Future<Integer> patch : patches) {
+                assertEquals(200, patch.get(30, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        mvc.perform(MockMvcRequestBuilders.get("/server/customerOrders/" + id))
+                .andExpect(jsonPath("$.cakesOrdered.length()").value(1))
+                .andExpect(jsonPath("$.cakesOrdered[0].id").value(cheesecake.getId()));
+        plan().andExpect(jsonPath("$[0].cakes.length()").value(1))
+                .andExpect(jsonPath("$[0].cakes[0].cakeId").value(cheesecake.getId()));
+
+        mvc.perform(MockMvcRequestBuilders.delete("/server/customerOrders/" + id)).andExpect(status().isOk());
+        plan().andExpect(jsonPath("$.length()").value(0));
+    }
+
+    @Test
+    public void rebuildCountsOrdersWrittenBehindTheApi() throws Exception {
+        plan().andExpect(jsonPath("$.length()").value(0));
+        customerOrderRepository.save(new CustomerOrder(null, "By hand", day("2041-05-01"), OrderStatus.NEW, customer,
+                List.of(sponge), null, null));
+        plan().andExpect(jsonPath("$.length()").value(0));
+
+        mvc.perform(MockMvcRequestBuilders.post("/server/productionPlan/rebuild")).andExpect(status().isOk());
+        plan().andExpect(jsonPath("$[0].cakes[0].cakeId").value(sponge.getId()))
+                .andExpect(jsonPath("$[0].cakes[0].quantity").value(1));
+    }
+
+    private ResultActions plan() throws Exception {
+        return mvc.perform(MockMvcRequestBuilders.get("/server/productionPlan")
+                        .param("from", "2041-05-01").param("until", "2041-05-02"))
+                .andExpect(status().isOk());
+    }
+
+    private String order(String deliveryDate, Cake... cakes) {
+        List<String> ids = new ArrayList<>();
+        for (Cake cake : cakes) {
+            ids.add("{\"id\":" + cake.getId() + "}");
+        }
+        return "{\"name\":\"Production\",\"deliveryDate\":\"" + deliveryDate + "\",\"status\":\"NEW\","
+                + "\"customerId\":" + customer.getId() + ",\"cakesOrdered\":[" + String.join(",", ids) + "]}";
+    }
+
+    private static Date day(String day) {
+        return Date.from(LocalDate.parse(day).atStartOfDay(ZoneOffset.UTC).toInstant());
+    }
+}
@@ -0,0 +1,102 @@
+package app;
+
+import app.enums.OrderStatus;
+import app.model.Cake;
+import app.model.Customer;
+import app.model.CustomerOrder;
+import app.repository.CakeRepository;
+import app.repository.CustomerOrderRepository;
+import app.repository.CustomerRepository;
+import app.service.SoftDeletePurger;
+import jakarta.persistence.EntityManager;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = StoreIngApplication.class,
+        webEnvironment = SpringBootTest.WebEnvironment.MOCK)
+@AutoConfigureMockMvc
+@TestPropertySource(locations = "classpath:application-test.properties",
+        properties = {"bezkoder.app.softDelete=true", "bezkoder.app.purgeDelayHours=0"})
+@Transactional
+public class SoftDeleteTest {
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private CakeRepository cakeRepository;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private CustomerOrderRepository customerOrderRepository;
+
+    @Autowired
+    private SoftDeletePurger softDeletePurger;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    @WithMockUser(username = "admin", roles = "MANAGER")
+    public void deletedRowsDisappearAtOnceAndArePurgedLater() throws Exception {
+        List<Cake> cakes = cakeRepository.saveAll(List.of(new Cake(null, "Battenberg", "Marzipan squares", null, null)));
+        Customer customer = customerRepository.save(new Customer(null, "Soft", "Delete", "soft.delete@mail.com",
+                "Soft Street 1", new ArrayList<>(), null, null));
+        Long orderId = customerOrderRepository.save(new CustomerOrder(null, "Soft order", new Date(), OrderStatus.NEW,
+                customer, cakes, null, null)).getId();
+        Long otherOrderId = customerOrderRepository.save(new CustomerOrder(null, "Other soft order", new Date(),
+                OrderStatus.NEW, customer, cakes, null, null)).getId();
+        entityManager.flush();
+        entityManager.clear();
+
+        mvc.perform(MockMvcRequestBuilders.delete("/server/customerOrders").param("ids", String.valueOf(orderId)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.deleted").value(1));
+        mvc.perform(MockMvcRequestBuilders.get("/server/customerOrders/" + orderId)).andExpect(status().isNotFound());
+        mvc.perform(MockMvcRequestBuilders.patch("/server/customerOrders/" + orderId + "/status")
+                        .content("{\"status\":\"READY\"}").contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNotFound());
+        mvc.perform(MockMvcRequestBuilders.get("/server/customers/" + customer.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.ordersList.length()").value(1));
+        assertEquals(1L, count("select count(*) from customer_order where id = " + orderId + " and deleted_at is not null"));
+        assertEquals(1L, count("select count(*) from order_cakes where cake_id = " + orderId));
+
+        mvc.perform(MockMvcRequestBuilders.delete("/server/customers").param("ids", String.valueOf(customer.getId())))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.deleted").value(1));
+        mvc.perform(MockMvcRequestBuilders.get("/server/customers/" + customer.getId())).andExpect(status().isNotFound());
+        mvc.perform(MockMvcRequestBuilders.get("/server/customerOrders/" + otherOrderId)).andExpect(status().isNotFound());
+        assertEquals(1L, count("select count(*) from customer where id = " + customer.getId()));
+
+        assertEquals(3, softDeletePurger.purge());
+        assertEquals(0L, count("select count(*) from customer_order where id in (" + orderId + ", " + otherOrderId + ")"));
+        assertEquals(0L, count("select count(*) from order_cakes where cake_id in (" + orderId + ", " + otherOrderId + ")"));
+        assertEquals(0L, count("select count(*) from customer where id = " + customer.getId()));
+        assertEquals(0, softDeletePurger.purge());
+    }
+
+    private long count(String sql) {
+        return ((Number) entityManager.createNativeQuery(sql).getSingleResult()).longValue();
+    }
+}
@@ -0,0 +1,185 @@
+package app;
+
+import app.enums.OrderStatus;
+import app.model.Cake;
+import app.model.Customer;
+import app.model.CustomerOrder;
+import app.repository.CakeRepository;
+import app.repository.CustomerOrderRepository;
+import app.repository.CustomerRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultMatcher;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Maximum number of SQL statements per call of the CRUD endpoints. The data set is large enough
+ * that loading the orders of every customer, or the cakes of every order, one by one breaks the
+ * budget. Each call is flushed so writes count too, and the test transaction is rolled back.
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = StoreIngApplication.class,
+        webEnvironment = SpringBootTest.WebEnvironment.MOCK)
+@AutoConfigureMockMvc
+@TestPropertySource(locations = "classpath:application-test.properties")
+@Transactional
+@WithMockUser(username = "admin", roles = {"EMPLOYEE", "MANAGER"})
+public class SqlBudgetTest {
+
+    private static final int CUSTOMERS = 20;
+
+    private static final int BATCH = 10;
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private CakeRepository cakeRepository;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private CustomerOrderRepository customerOrderRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private List<Cake> cakes;
+
+    private Long firstCustomerId;
+
+    private Long customerId;
+
+    private Long firstOrderId;
+
+    private Long orderId;
+
+    @Before
+    public void setUp() {
+        cakes = cakeRepository.saveAll(List.of(
+                new Cake(null, "Lemon Drizzle", "Lemon syrup", null, null),
+                new Cake(null, "Tiramisu", "Coffee and mascarpone", null, null),
+                new Cake(null, "Black Forest", "Cherries and cream", null, null),
+                new Cake(null, "Battenberg", "Marzipan", null, null)));
+        List<Cake> ordered = cakes.subList(0, 3);
+        for (int c = 0; c < CUSTOMERS; c++) {
+            Customer customer = customerRepository.save(new Customer(null, "Budget" + c, "Customer" + c,
+                    "budget" + c + "@mail.com", "Budget Street " + c, new ArrayList<>(), null, null));
+            customerId = customer.getId();
+            if (firstCustomerId == null) {
+                firstCustomerId = customerId;
+            }
+            for (int o = 0; o < 3; o++) {
+                orderId = customerOrderRepository.save(new CustomerOrder(null, "Budget order " + c + "-" + o,
+                        new Date(), OrderStatus.NEW, customer, ordered, null, null)).getId();
+                if (firstOrderId == null) {
+                    firstOrderId = orderId;
+                }
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    public void cakeEndpoints() throws Exception {
+        Long unordered = cakes.get(3).getId();
+        String cake = cake("Budget cake");
+
+        call(2, "GET /server/cakes/all", MockMvcRequestBuilders.get("/server/cakes/all"), status().isOk());
+        call(2, "GET /server/cakes/{id}", MockMvcRequestBuilders.get("/server/cakes/" + unordered), status().isOk());
+        call(1, "POST /server/cakes/new", MockMvcRequestBuilders.post("/server/cakes/new")
+                .content(cake).contentType(MediaType.APPLICATION_JSON), status().isCreated());
+        call(1, "POST /server/cakes/batch", MockMvcRequestBuilders.post("/server/cakes/batch")
+                .content(list(cake, BATCH)).contentType(MediaType.APPLICATION_JSON), status().isCreated());
+        call(2, "PUT /server/cakes/{id}", MockMvcRequestBuilders.put("/server/cakes/" + unordered)
+                .content(cake).contentType(MediaType.APPLICATION_JSON), status().isOk());
+        call(2, "DELETE /server/cakes/{id}", MockMvcRequestBuilders.delete("/server/cakes/" + unordered), status().isOk());
+    }
+
+    @Test
+    public void customerEndpoints() throws Exception {
+        Long withoutOrders = customerRepository.save(new Customer(null, "No", "Orders", "no.orders@mail.com",
+                "Empty Street 1", new ArrayList<>(), null, null)).getId();
+        entityManager.flush();
+        entityManager.clear();
+        String customer = "{\"firstName\":\"Budget\",\"lastName\":\"New\",\"email\":\"new@mail.com\","
+                + "\"deliveryAddress\":\"New Street 1\"}";
+
+        call(3, "GET /server/customers/all", MockMvcRequestBuilders.get("/server/customers/all")
+                        .param("after", String.valueOf(firstCustomerId - 1)).param("limit", String.valueOf(CUSTOMERS)),
+                status().isOk(), jsonPath("$.items[" + (CUSTOMERS - 1) + "].ordersList[2].cakesOrdered[2].name").exists());
+        call(4, "GET /server/customers/{id}", MockMvcRequestBuilders.get("/server/customers/" + customerId),
+                status().isOk(), jsonPath("$.ordersList[2].cakesOrdered[2].name").exists());
+        call(1, "POST /server/customers/new", MockMvcRequestBuilders.post("/server/customers/new")
+                .content(customer).contentType(MediaType.APPLICATION_JSON), status().isCreated());
+        call(1, "POST /server/customers/batch", MockMvcRequestBuilders.post("/server/customers/batch")
+                .content(list(customer, BATCH)).contentType(MediaType.APPLICATION_JSON), status().isCreated());
+        call(3, "PUT /server/customers/{id}", MockMvcRequestBuilders.put("/server/customers/" + withoutOrders)
+                .content(customer).contentType(MediaType.APPLICATION_JSON), status().isOk());
+        // the orders of the customer go with one statement per table, whatever their number
+        call(4, "DELETE /server/customers/{id}", MockMvcRequestBuilders.delete("/server/customers/" + withoutOrders),
+                status().isOk());
+    }
+
+    @Test
+    public void customerOrderEndpoints() throws Exception {
+        String order = "{\"name\":\"Budget order\",\"deliveryDate\":\"2030-01-01\",\"status\":\"NEW\","
+                + "\"customerId\":" + customerId + ",\"cakesOrdered\":[{\"id\":" + cakes.get(0).getId() + "},"
+                + "{\"id\":" + cakes.get(1).getId() + "}]}";
+
+        call(2, "GET /server/customerOrders/all",
+                MockMvcRequestBuilders.get("/server/customerOrders/all")
+                        .param("after", String.valueOf(firstOrderId - 1)).param("limit", String.valueOf(CUSTOMERS * 3)),
+                status().isOk(), jsonPath("$.items[" + (CUSTOMERS * 3 - 1) + "].cakesOrdered[2].name").exists());
+        call(3, "GET /server/customerOrders/{id}", MockMvcRequestBuilders.get("/server/customerOrders/" + orderId),
+                status().isOk(), jsonPath("$.cakesOrdered[2].name").exists());
+        call(3, "POST /server/customerOrders/new", MockMvcRequestBuilders.post("/server/customerOrders/new")
+                .content(order).contentType(MediaType.APPLICATION_JSON), status().isCreated());
+        call(3, "POST /server/customerOrders/batch", MockMvcRequestBuilders.post("/server/customerOrders/batch")
+                .content(list(order, BATCH)).contentType(MediaType.APPLICATION_JSON), status().isCreated());
+        // updates and deletes read the cakes the order had to take them off the production plan
+        call(6, "PUT /server/customerOrders/{id}", MockMvcRequestBuilders.put("/server/customerOrders/" + orderId)
+                .content(order).contentType(MediaType.APPLICATION_JSON), status().isOk());
+        call(3, "DELETE /server/customerOrders/{id}", MockMvcRequestBuilders.delete("/server/customerOrders/" + orderId),
+                status().isOk());
+    }
+
+    private void call(int budget, String description, RequestBuilder request, ResultMatcher... matchers) throws Exception {
+        SqlStatementCounter.assertAtMost(budget, description, () -> {
+            mvc.perform(request).andExpectAll(matchers);
+            entityManager.flush();
+            entityManager.clear();
+            return null;
+        });
+    }
+
+    private static String cake(String name) {
+        return "{\"name\":\"" + name + "\",\"description\":\"Baked to test the budget\"}";
+    }
+
+    private static String list(String item, int size) {
+        return "[" + String.join(",", Collections.nCopies(size, item)) + "]";
+    }
+}
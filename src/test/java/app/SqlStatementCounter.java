@@ -0,0 +1,53 @@
+package app;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Records the SQL Hibernate sends while a budget is being checked, registered as statement
+ * inspector in application-test.properties. JDBC the application runs by hand, like the
+ * PostgreSQL COPY of the order import, is not seen.
+ */
+public class SqlStatementCounter implements StatementInspector {
+
+    private static final List<String> statements = Collections.synchronizedList(new ArrayList<>());
+
+    private static volatile boolean recording;
+
+    @Override
+    public String inspect(String sql) {
+        if (recording) {
+            statements.add(sql);
+        }
+        return sql;
+    }
+
+    /**
+     * Runs the call and fails, listing the statements, when it sent more than budget statements.
+     */
+    public static <T> T assertAtMost(int budget, String description, Callable<T> call) throws Exception {
+        statements.clear();
+        recording = true;
+        T result;
+        try {
+            result = call.call();
+        } finally {
+            recording = false;
+        }
+        List<String> sent;
+        synchronized (statements) {
+            sent = new ArrayList<>(statements);
+        }
+        if (sent.size() > budget) {
+            fail(description + " sent " + sent.size() + " SQL statements, the budget is " + budget + ":\n"
+                    + String.join("\n", sent));
+        }
+        return result;
+    }
+}
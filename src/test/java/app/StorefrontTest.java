@@ -0,0 +1,118 @@
+package app;
+
+import app.enums.OrderStatus;
+import app.model.Cake;
+import app.model.Customer;
+import app.model.CustomerOrder;
+import app.repository.CustomerOrderRepository;
+import app.repository.CustomerRepository;
+import app.security.jwt.JwtUtils;
+import app.service.CakeService;
+import app.service.userService.UserDetailsImpl;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.netty.DisposableServer;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = StoreIngApplication.class,
+        webEnvironment = SpringBootTest.WebEnvironment.MOCK)
+@TestPropertySource(locations = "classpath:application-test.properties")
+public class StorefrontTest {
+    @Autowired
+    private DisposableServer storefrontServer;
+
+    @Autowired
+    private CakeService cakeService;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private CustomerOrderRepository customerOrderRepository;
+
+    @Autowired
+    private JwtUtils jwtUtils;
+
+    private WebTestClient client;
+
+    private Cake cake;
+
+    private Customer customer;
+
+    private CustomerOrder order;
+
+    @Before
+    public void setUp() {
+        client = WebTestClient.bindToServer().baseUrl("http://localhost:" + storefrontServer.port()).build();
+        cake = cakeService.addCake(new Cake(null, "Storefront Sponge", "Victoria sponge", null, null));
+        customer = customerRepository.save(
+                new Customer(null, "Store", "Front", "storefront@store.com", "Main Street 2", new ArrayList<>(), null, null));
+        order = customerOrderRepository.save(
+                new CustomerOrder(null, "Storefront order", new Date(), OrderStatus.NEW, customer, List.of(cake), null, null));
+    }
+
+    @After
+    public void tearDown() {
+        customerOrderRepository.deleteById(order.getId());
+        customerRepository.deleteById(customer.getId());
+        cakeService.deleteById(cake.getId());
+    }
+
+    @Test
+    public void catalogueIsPublicAndRevalidated() {
+        String etag = client.get().uri("/storefront/cakes").exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.items[?(@.name == 'Storefront Sponge')]").exists()
+                .returnResult().getResponseHeaders().getETag();
+
+        client.get().uri("/storefront/cakes").header(HttpHeaders.IF_NONE_MATCH, etag).exchange()
+                .expectStatus().isNotModified();
+        client.get().uri("/storefront/cakes/" + cake.getId()).exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.description").isEqualTo("Victoria sponge");
+        client.get().uri("/storefront/cakes/" + Long.MAX_VALUE).exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    public void malformedNumbersAreBadRequests() {
+        client.get().uri("/storefront/cakes?limit=many").exchange()
+                .expectStatus().isBadRequest()
+                .expectBody().jsonPath("$.message").isEqualTo("Error: Invalid paging parameters!");
+        client.get().uri("/storefront/cakes/" + Long.MAX_VALUE + "0").exchange()
+                .expectStatus().isBadRequest()
+                .expectBody().jsonPath("$.message").isEqualTo("Error: Invalid id!");
+    }
+
+    @Test
+    public void orderLookupNeedsAToken() {
+        client.get().uri("/storefront/orders/" + order.getId()).exchange()
+                .expectStatus().isUnauthorized();
+
+        UserDetailsImpl user = new UserDetailsImpl(1L, "storefront", "storefront@store.com", "",
+                List.of(new SimpleGrantedAuthority("ROLE_EMPLOYEE")));
+        String token = jwtUtils.generateJwtToken(new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+        client.get().uri("/storefront/orders/" + order.getId()).header(HttpHeaders.AUTHORIZATION, "Bearer " + token).exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.status").isEqualTo("NEW")
+                .jsonPath("$.cakesOrdered[0].name").isEqualTo("Storefront Sponge");
+        client.get().uri("/storefront/orders/" + Long.MAX_VALUE + "0").header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+}
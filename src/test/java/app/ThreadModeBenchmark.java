@@ -0,0 +1,155 @@
+package app;
+
+import app.enums.OrderStatus;
+import app.model.Cake;
+import app.model.Customer;
+import app.model.CustomerOrder;
+import app.repository.CakeRepository;
+import app.repository.CustomerOrderRepository;
+import app.repository.CustomerRepository;
+import app.security.jwt.JwtUtils;
+import app.service.userService.UserDetailsImpl;
+import org.junit.Assume;
+import org.junit.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Compares throughput and latency of order lookups served on Tomcat's platform threads and on
+ * virtual threads. Both modes get the same small Tomcat pool, far fewer threads than concurrent
+ * clients, so the platform mode queues requests where the virtual mode does not.
+ */
+public class ThreadModeBenchmark {
+
+    private static final int CLIENTS = Integer.getInteger("benchmark.clients", 400);
+
+    private static final int REQUESTS_PER_CLIENT = Integer.getInteger("benchmark.requests", 50);
+
+    private static final int TOMCAT_THREADS = 50;
+
+    private static final int ORDERS = 1000;
+
+    @Test
+    public void compareThreadModes() throws Exception {
+        Assume.assumeTrue("virtual threads need Java 21", Runtime.version().feature() >= 21);
+
+        Result platform = run(false);
+        Result virtual = run(true);
+
+        System.out.printf("%d clients x %d requests, %d Tomcat threads%n", CLIENTS, REQUESTS_PER_CLIENT, TOMCAT_THREADS);
+        System.out.println(platform.format("platform"));
+        System.out.println(virtual.format("virtual"));
+    }
+
+    private Result run(boolean virtualThreads) throws Exception {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(StoreIngApplication.class).run(
+                "--server.port=0",
+                "--server.tomcat.threads.max=" + TOMCAT_THREADS,
+                "--spring.threads.virtual.enabled=" + virtualThreads,
+                "--spring.datasource.url=jdbc:h2:mem:benchmark-" + virtualThreads,
+                "--spring.datasource.driver-class-name=org.h2.Driver",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.datasource.hikari.maximum-pool-size=" + TOMCAT_THREADS,
+                "--spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+                "--spring.jpa.hibernate.ddl-auto=create-drop",
+                "--bezkoder.app.storefrontEnabled=false")) {
+            List<Long> orderIds = seed(context);
+            String token = token(context);
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+
+            // warm up the JIT and the caches before measuring
+            load(port, token, orderIds, Math.min(CLIENTS, 20), REQUESTS_PER_CLIENT);
+            return load(port, token, orderIds, CLIENTS, REQUESTS_PER_CLIENT);
+        }
+    }
+
+    private static List<Long> seed(ConfigurableApplicationContext context) {
+        List<Cake> cakes = context.getBean(CakeRepository.class).saveAll(List.of(
+                new Cake(null, "Sacher", "Chocolate and apricot", null, null),
+                new Cake(null, "Pavlova", "Meringue and berries", null, null)));
+        Customer customer = context.getBean(CustomerRepository.class).save(
+                new Customer(null, "Bench", "Mark", "bench@store.com", "Main Street 1", new ArrayList<>(), null, null));
+        List<CustomerOrder> orders = new ArrayList<>();
+        for (int i = 0; i < ORDERS; i++) {
+            orders.add(new CustomerOrder(null, "Order " + i, new Date(), OrderStatus.NEW, customer, cakes, null, null));
+        }
+        return context.getBean(CustomerOrderRepository.class).saveAll(orders).stream().map(CustomerOrder::getId).toList();
+    }
+
+    private static String token(ConfigurableApplicationContext context) {
+        UserDetailsImpl user = new UserDetailsImpl(1L, "bench", "bench@store.com", "",
+                List.of(new SimpleGrantedAuthority("ROLE_EMPLOYEE")));
+        return context.getBean(JwtUtils.class)
+                .generateJwtToken(new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+    }
+
+    private static Result load(int port, String token, List<Long> orderIds, int clients, int requestsPerClient)
+            throws Exception {
+        HttpClient http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        ExecutorService executor = Executors.newFixedThreadPool(clients);
+        try {
+            List<Future<long[]>> futures = new ArrayList<>();
+            long start = System.nanoTime();
+            for (int c = 0; c < clients; c++) {
+                futures.add(executor.submit(() -> {
+                    long[] latencies = new long[requestsPerClient];
+                    for (int r = 0; r < requestsPerClient; r++) {
+                        Long id = orderIds.get(ThreadLocalRandom.current().nextInt(orderIds.size()));
+                        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/server/customerOrders/" + id))
+                                .header("Authorization", "Bearer " + token)
+                                .build();
+                        long sent = System.nanoTime();
+                        HttpResponse<Void> response = http.send(request, HttpResponse.BodyHandlers.discarding());
+                        latencies[r] = System.nanoTime() - sent;
+                        if (response.statusCode() != 200) {
+                            throw new IllegalStateException("Unexpected status " + response.statusCode());
+                        }
+                    }
+                    return latencies;
+                }));
+            }
+            long[] all = new long[clients * requestsPerClient];
+            int offset = 0;
+            for (Future<long[]> future : futures) {
+                long[] latencies = future.get();
+                System.arraycopy(latencies, 0, all, offset, latencies.length);
+                offset += latencies.length;
+            }
+            long elapsed = System.nanoTime() - start;
+            Arrays.sort(all);
+            return new Result(all.length * 1_000_000_000.0 / elapsed, percentile(all, 0.5), percentile(all, 0.99),
+                    all[all.length - 1]);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static long percentile(long[] sorted, double percentile) {
+        return sorted[(int) Math.ceil(percentile * sorted.length) - 1];
+    }
+
+    private record Result(double throughput, long p50, long p99, long max) {
+
+        String format(String mode) {
+            return String.format("%-8s %10.0f req/s  p50 %7.2f ms  p99 %7.2f ms  max %7.2f ms",
+                    mode, throughput, p50 / 1e6, p99 / 1e6, max / 1e6);
+        }
+    }
+}